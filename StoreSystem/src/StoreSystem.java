@@ -1,21 +1,38 @@
-import jakarta.mail.*;
-import jakarta.mail.internet.*;
 import java.util.Properties;
 import java.io.File;
 import java.io.*;
-import java.net.Authenticator;
-import java.net.PasswordAuthentication;
 import java.time.*;
 import static java.time.LocalDate.now;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.time.LocalTime;
 import storesystem.Attendance;
+import storesystem.BulkTransfer;
+import storesystem.AttendanceLog;
+import storesystem.CsvReader;
 import storesystem.Employee;
+import storesystem.Money;
 import storesystem.SaleRecord;
+import storesystem.ReceiptWriter;
+import storesystem.Replenishment;
+import storesystem.ReportMailer;
+import storesystem.SalesAggregates;
+import storesystem.SalesIndex;
+import storesystem.SalesRollups;
+import storesystem.SalesLedger;
+import storesystem.SalesStore;
+import storesystem.SalesTextIndex;
 import storesystem.Stock;
+import storesystem.StockCounts;
+import storesystem.StockQuery;
+import storesystem.StockStore;
+import storesystem.StorageBackend;
 import storesystem.EditInformation;
+import storesystem.EmployeeDirectory;
 import storesystem.SearchInformation;
+import storesystem.TerminalSession;
+import storesystem.Transaction;
+import storesystem.StoreServer;
 
 // ================= MAIN SYSTEM =================
 public class StoreSystem {
@@ -23,25 +40,160 @@ public class StoreSystem {
     // CSV Files
     private static final String EMPLOYEE_FILE = "employee.csv";
     private static final String OUTLET_FILE = "outlet.csv";
-    private static final String ATTENDANCE_FILE = "attendance.csv";
+    private static final String ATTENDANCE_FILE = "attendance.csv"; // before attendance/, migrated on startup
+    private static final String ATTENDANCE_DIR = "attendance";
     private static final String STOCK_FILE = "model.csv";
-
-    // In-memory storage
-    private static List<Employee> employees = new ArrayList<>();
-    private static List<Attendance> attendanceLogs = new ArrayList<>();
+    private static final String SALES_DIR = "sales";
+    private static final String REORDER_FILE = "reorder.csv"; // reorder points that differ from the default
+    private static final String COUNT_DIR = "counts"; // stock count history and mismatch reports
+    private static final String OUTBOX_DIR = "outbox"; // report emails waiting to be sent
+    private static final String CONFIG_FILE = "store.properties"; // optional settings, defaults used when missing
+
+    // In-memory storage (shared by all terminals)
+    // Stores are opened once the config says where they are kept (see openStorage)
+    private static EmployeeDirectory employees; // by id and outlet
+    private static AttendanceLog attendance; // saved per month
     private static Map<String, String> outletMap = new HashMap<>();
-    private static List<Stock> stocks = new ArrayList<>();
-    private static List<SaleRecord> salesHistory = new ArrayList<>();
-
-    private static Scanner sc = new Scanner(System.in);
-    private static Employee currentUser = null; //set as empty first
+    private static SalesStore salesHistory; // saved per month, names in sales/*.dict
+    private static SalesIndex salesByDate; // built after sales history is loaded
+    private static SalesTextIndex salesByKeyword;
+    private static SalesAggregates salesTotals;
+    private static SalesRollups salesRollups = new SalesRollups(new File(SALES_DIR, "rollups.bin")); // trend cubes
+    private static StockStore stockStore; // all outlets, shared
+    private static StockCounts stockCounts;
+    private static SalesLedger salesLedger; // checkouts, logged before sales and stock are saved
+    private static Replenishment replenishment; // reorder settings come from store.properties
+    private static Properties config = new Properties();
+    private static ReceiptWriter receipts; // started once the config is read
+    private static ReportMailer reportMailer; // mail settings come from store.properties
+
+    // Input, logged in user and stock view of the terminal being served (the console unless in server mode)
+    private static final TerminalSession console = new TerminalSession(new Scanner(System.in), System.out);
+    private static final ThreadLocal<TerminalSession> terminal = ThreadLocal.withInitial(() -> console);
 
     // ================= MAIN =================
     public static void main(String[] args) {
+        loadConfig();
+        try {
+            openStorage();
+        } catch (IOException e) {
+            System.out.println("Error opening storage: " + e.getMessage());
+            System.exit(1);
+        }
+        if (args.length > 0 && (args[0].equals("--import") || args[0].equals("--export"))) {
+            System.exit(runBatch(args));
+        }
+        if (args.length > 0 && args[0].equals("--query")) {
+            System.exit(runQuery(args));
+        }
         loadData(); // load csv data into memory
 
-        while (true) {
-            if (currentUser == null) {
+        if (args.length > 0 && args[0].equals("--server")) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : 5050;
+            try {
+                new StoreServer(port, StoreSystem::runTerminal).serve();
+            } catch (IOException e) {
+                System.out.println("Error starting server: " + e.getMessage());
+            }
+            return;
+        }
+        runTerminal(console);
+    }
+
+    // ================= BATCH =================
+    // --import|--export sales|stock|attendance <file>; .csv files are CSV, anything else the binary format
+    private static int runBatch(String[] args) {
+        if (args.length < 3) {
+            System.out.println("Usage: StoreSystem --import|--export sales|stock|attendance <file>");
+            return 2;
+        }
+        boolean importing = args[0].equals("--import");
+        String kind = args[1].toLowerCase();
+        File file = new File(args[2]);
+        try {
+            CsvReader.read(new File(OUTLET_FILE), row -> outletMap.put(row.getString(0), row.getString(1)));
+            BulkTransfer bulk = new BulkTransfer(outletMap);
+            if (kind.equals("sales") || kind.equals("stock")) {
+                // checkouts the last run did not finish saving go in first
+                salesLedger = new SalesLedger(new File(SALES_DIR, "ledger.wal"), salesHistory, stockStore, ReceiptWriter.Durability.FSYNC);
+                salesHistory.load();
+                stockStore.load();
+                salesLedger.recover();
+            }
+            long start = System.nanoTime();
+            String done;
+            switch (kind) {
+                case "sales":
+                    done = importing ? bulk.importSales(file, salesHistory).toString()
+                                     : "Exported " + bulk.exportSales(file, salesHistory) + " sales.";
+                    salesHistory.close();
+                    break;
+                case "stock":
+                    done = importing ? bulk.importStock(file, stockStore, "import").toString()
+                                     : "Exported " + bulk.exportStock(file, stockStore) + " stock rows.";
+                    break;
+                case "attendance":
+                    attendance.load();
+                    done = importing ? bulk.importAttendance(file, attendance).toString()
+                                     : "Exported " + bulk.exportAttendance(file, attendance) + " shifts.";
+                    break;
+                default:
+                    System.out.println("Unknown data: " + kind + " (sales, stock or attendance)");
+                    return 2;
+            }
+            System.out.println(done);
+            System.out.printf("Took %.1f s%n", (System.nanoTime() - start) / 1e9);
+            return 0;
+        } catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    // --query stock [--model DW2300-1|DW*] [--outlet C60,C61] [--where ">= 5"]; prints CSV:
+    // model,outlet,quantity per matching cell with --where, else model,<outlets...>,total per model
+    private static int runQuery(String[] args) {
+        Map<String, String> opt = new HashMap<>();
+        for (int i = 2; i + 1 < args.length; i += 2) opt.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        if (args.length < 2 || !args[1].equalsIgnoreCase("stock")) {
+            System.out.println("Usage: StoreSystem --query stock [--model M|prefix*] [--outlet C60,C61] [--where \">= 5\"]");
+            return 2;
+        }
+        try {
+            stockStore.setSnapshotHook(() -> { }); // read only: the journal is left for the sales ledger to recover
+            stockStore.load();
+            StockQuery.Result r = StockQuery.on(stockStore).models(opt.getOrDefault("model", ""))
+                    .outlets(opt.getOrDefault("outlet", "")).where(opt.getOrDefault("where", "")).run();
+            PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+            if (r.isFiltered()) {
+                out.println("Model,Outlet,Quantity");
+                for (int i = 0; i < r.size(); i++) {
+                    for (int j = 0; j < r.getOutletCount(); j++) {
+                        if (r.matches(i, j)) out.append(r.getModel(i)).append(',').append(r.getOutlet(j)).append(',').println(r.getQuantity(i, j));
+                    }
+                }
+            } else {
+                out.print("Model");
+                for (int j = 0; j < r.getOutletCount(); j++) out.append(',').print(r.getOutlet(j));
+                out.println(",Total");
+                for (int i = 0; i < r.size(); i++) {
+                    out.print(r.getModel(i));
+                    for (int j = 0; j < r.getOutletCount(); j++) out.append(',').print(r.getQuantity(i, j));
+                    out.append(',').println(r.getTotal(i));
+                }
+            }
+            out.flush();
+            return 0;
+        } catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private static void runTerminal(TerminalSession s) {
+        terminal.set(s);
+        while (!s.isClosed()) {
+            if (currentUser() == null) {
                 loginMenu(); //login method
             } else {
                 mainMenu(); //go to main menu if already login
@@ -49,6 +201,10 @@ public class StoreSystem {
         }
     }
 
+    private static Scanner sc() { return terminal.get().getScanner(); }
+    private static Employee currentUser() { return terminal.get().getUser(); }
+    private static List<Stock> stocks() { return terminal.get().getStocks(); }
+
     // ================= LOGIN =================
     private static void loginMenu() {
         System.out.println("\n=== GOLDENHOUR STORE SYSTEM ===");
@@ -56,43 +212,45 @@ public class StoreSystem {
         System.out.println("2. Exit");
         System.out.print("Select: ");
 
-        switch (sc.nextLine()) {
+        switch (sc().nextLine()) {
             case "1": login(); break;
-            case "2": System.exit(0);
+            case "2":
+                if (terminal.get() == console) System.exit(0);
+                terminal.get().close(); // server mode: end this terminal only
+                break;
             default: System.out.println("Invalid option.");
         }
     }
 
     private static void login() {
         System.out.print("User ID: ");
-        String id = sc.nextLine().trim(); //untuk remove space before and after sebab tu guna trim
+        String id = sc().nextLine().trim(); //untuk remove space before and after sebab tu guna trim
         System.out.print("Password: ");
-        String pass = sc.nextLine().trim();
-
-        for (Employee e : employees) {
-            if (e.getId().equalsIgnoreCase(id) && e.getPassword().equals(pass)) {
-                currentUser = e;
-                System.out.println("\nLogin Successful!");
-                System.out.println("Welcome, " + e.getName());
-                loadStock();
-                return;
-            }
+        String pass = sc().nextLine().trim();
+
+        Employee user = employees.login(id, pass);
+        if (user != null) {
+            terminal.get().setUser(user);
+            System.out.println("\nLogin Successful!");
+            System.out.println("Welcome, " + user.getName());
+            loadStock();
+            return;
         }
         System.out.println("Invalid login.");
     }
 
     private static void logout() {
-        currentUser = null;
+        terminal.get().setUser(null);
         System.out.println("Logged out.");
     }
 
     // ================= MAIN MENU =================
     private static void mainMenu() {
-        System.out.println("\n=== Main Menu (" + currentUser.getName() + ") ===");
+        System.out.println("\n=== Main Menu (" + currentUser().getName() + ") ===");
         System.out.println("1. Clock In");
         System.out.println("2. Clock Out");
 
-        if (currentUser.getRole().equalsIgnoreCase("Manager")) { //untuk ignore uppercase and lowercase diff
+        if (currentUser().getRole().equalsIgnoreCase("Manager")) { //untuk ignore uppercase and lowercase diff
             System.out.println("3. Register Employee");
             System.out.println("4. View Employee Performance Metrics");
             System.out.println("5. Close Store(Send Daily Report)");
@@ -104,24 +262,28 @@ public class StoreSystem {
         System.out.println("10. View Data Analytics");
         System.out.println("11. Filter and Sort Sales History");
         System.out.println("12. Logout");
+        if (currentUser().getRole().equalsIgnoreCase("Manager")) {
+            System.out.println("13. Sales Dashboard");
+            System.out.println("14. Replenishment Queue");
+        }
         System.out.print("Select: ");
 
-        switch (sc.nextLine()) {
+        switch (sc().nextLine()) {
             case "1": clockIn(); break;
             case "2": clockOut(); break;
             case "3":
-                if (currentUser.getRole().equalsIgnoreCase("Manager")) registerEmployee();
+                if (currentUser().getRole().equalsIgnoreCase("Manager")) registerEmployee();
                 else System.out.println("Unauthorized.");
                 break;
             case "4":
-                if (currentUser.getRole().equalsIgnoreCase("Manager")) {
-                    SearchInformation.employeePerformance((ArrayList<SaleRecord>) salesHistory);
+                if (currentUser().getRole().equalsIgnoreCase("Manager")) {
+                    SearchInformation.employeePerformance(salesHistory, salesTotals);
                 } else {
                     System.out.println("Unauthorized.");
                 }
                 break;
             case "5":
-                if (currentUser.getRole().equalsIgnoreCase("Manager")) {
+                if (currentUser().getRole().equalsIgnoreCase("Manager")) {
                     sendDailyReport();
                     System.out.println("Store records finalized. Logging out...");
                     logout();
@@ -131,11 +293,22 @@ public class StoreSystem {
                 break;
             case "6": stockMenu(); break;
             case "7": runSalesModule(); break;
-            case "8": EditInformation.editStock(stocks, sc); saveStock(); break;
-            case "9": EditInformation.EditSales(salesHistory, sc); break;
-            case "10": SearchInformation.showAnalytics((ArrayList<SaleRecord>) salesHistory); break;
-            case "11": SearchInformation.filterAndSortSales((ArrayList<SaleRecord>) salesHistory, sc); break;
+            case "8": EditInformation.editStock(stocks(), stockStore, sc(), currentUser().getName()); break;
+            case "9": EditInformation.EditSales(salesHistory, sc()); break;
+            case "10": SearchInformation.showAnalytics(salesHistory, salesTotals); break;
+            case "11": SearchInformation.filterAndSortSales(salesHistory, salesByDate, sc()); break;
             case "12": logout(); break;
+            case "13":
+                if (currentUser().getRole().equalsIgnoreCase("Manager")) {
+                    SearchInformation.salesDashboard(salesHistory, salesRollups, sc());
+                } else {
+                    System.out.println("Unauthorized.");
+                }
+                break;
+            case "14":
+                if (currentUser().getRole().equalsIgnoreCase("Manager")) replenishmentQueue();
+                else System.out.println("Unauthorized.");
+                break;
             default: System.out.println("Invalid option.");
         }
     }
@@ -144,21 +317,16 @@ public class StoreSystem {
     private static void registerEmployee() {
         System.out.println("\n=== Register Employee ===");
         System.out.print("Name: ");
-        String name = sc.nextLine();
+        String name = sc().nextLine();
 
         String id;
         String outlet;
 
         while (true) {
             System.out.print("Employee ID (e.g. C6013): ");
-            id = sc.nextLine().trim();
+            id = sc().nextLine().trim();
 
-            boolean exists = false;
-            for (Employee e : employees) {
-                if (e.getId().equalsIgnoreCase(id)) {
-                    exists = true;break; // Stop searching once found
-                }
-            }
+            boolean exists = employees.exists(id);
 
             if (exists) {
                 System.out.println("ID already exists.");
@@ -174,13 +342,20 @@ public class StoreSystem {
         }
 
         System.out.print("Set Role (Part-time/Full-time): ");
-        String role = sc.nextLine();
+        String role = sc().nextLine();
 
         System.out.print("Set Password: ");
-        String pass = sc.nextLine();
+        String pass = sc().nextLine();
 
-        employees.add(new Employee(id, name, role, pass, outlet));
-        saveEmployees();
+        try {
+            if (!employees.register(id, name, role, pass, outlet)) { // registered from another terminal meanwhile
+                System.out.println("ID already exists.");
+                return;
+            }
+        } catch (IOException e) {
+            System.out.println("Error saving employees.");
+            return;
+        }
 
         System.out.println("Employee successfully registered!");
         System.out.println("Assigned to: " + outlet);
@@ -190,19 +365,17 @@ public class StoreSystem {
     private static void clockIn() {
         LocalDate today = LocalDate.now(); //to get current date
 
-        for (Attendance a : attendanceLogs) {
-            if (a.getEmployeeId().equals(currentUser.getId())
-                    && a.getDate().equals(today)
-                    && a.getClockOut() == null) {
-                System.out.println("Already clocked in.");
-                return;
-            }
+        Attendance log;
+        try {
+            log = attendance.clockIn(currentUser().getId(), today, LocalTime.now(), currentUser().getOutlet());
+        } catch (IOException e) {
+            System.out.println("Error saving attendance.");
+            return;
+        }
+        if (log == null) {
+            System.out.println("Already clocked in.");
+            return;
         }
-
-        LocalTime now = LocalTime.now(); //to get local time
-        Attendance log = new Attendance(currentUser.getId(), today, LocalTime.now(), null, currentUser.getOutlet());
-        attendanceLogs.add(log);
-        saveAttendance();
         System.out.println("\nClock In Successful!");
         displayAttendance(log);
     }
@@ -210,28 +383,28 @@ public class StoreSystem {
     private static void clockOut() {
         LocalDate today = LocalDate.now();
 
-        for (Attendance a : attendanceLogs) {
-            if (a.getEmployeeId().equals(currentUser.getId())
-                    && a.getDate().equals(today)
-                    && a.getClockOut() == null) {
-
-                a.setClockOut(LocalTime.now());
-                saveAttendance();
+        Attendance open;
+        try {
+            open = attendance.clockOut(currentUser().getId(), today, LocalTime.now());
+        } catch (IOException e) {
+            System.out.println("Error saving attendance.");
+            return;
+        }
+        if (open == null) {
+            System.out.println("No active clock-in found.");
+            return;
+        }
 
-                Duration d = Duration.between(a.getClockIn(), a.getClockOut());
-                double hours = d.toMinutes() / 60.0;
+        Duration d = Duration.between(open.getClockIn(), open.getClockOut());
+        double hours = d.toMinutes() / 60.0;
 
-                System.out.println("\nClock Out Successful!");
-                displayAttendance(a);
-                System.out.printf("Total Hours Worked: %.1f hours%n", hours);
-                return;
-            }
-        }
-        System.out.println("No active clock-in found.");
+        System.out.println("\nClock Out Successful!");
+        displayAttendance(open);
+        System.out.printf("Total Hours Worked: %.1f hours%n", hours);
     }
     private static void displayAttendance(Attendance a) {
-        System.out.println("Employee ID: " + currentUser.getId());
-        System.out.println("Name: " + currentUser.getName());
+        System.out.println("Employee ID: " + currentUser().getId());
+        System.out.println("Name: " + currentUser().getName());
         System.out.println("Outlet: " + a.getOutlet());
         System.out.println("Date: " + a.getDate());
         System.out.println("Time: " + formatTime(
@@ -247,15 +420,19 @@ public class StoreSystem {
         System.out.println("2. Night Count");
         System.out.println("3. Stock In");
         System.out.println("4. Stock Out");
-        System.out.println("5. Back");
+        System.out.println("5. Bulk Count (from file)");
+        System.out.println("6. Count History");
+        System.out.println("7. Back");
         System.out.print("Select: ");
 
-        switch (sc.nextLine()) {
+        switch (sc().nextLine()) {
             case "1": stockCount("Morning"); break;
             case "2": stockCount("Night"); break;
             case "3": stockIn(); break;
             case "4": stockOut(); break;
-            case "5": return;
+            case "5": bulkStockCount(); break;
+            case "6": countHistory(); break;
+            case "7": return;
         }
     }
 
@@ -264,39 +441,133 @@ public class StoreSystem {
         System.out.println("Date: " + LocalDate.now());
         System.out.println("Time: " + formatTime(LocalTime.now()));
         
-        int correct = 0; //initialize variable
-        int mismatch = 0;
-        int totalModels = 0;
-        
-        if (stocks.isEmpty()) { //nothing in stock
-        System.out.println("Error: No models found for outlet " + currentUser.getOutlet());
-        return;
-    }
-        for (Stock s : stocks) { //count for every stock 
-           totalModels++;
+        if (stocks().isEmpty()) { //nothing in stock
+            System.out.println("Error: No models found for outlet " + currentUser().getOutlet());
+            return;
+        }
+        int[] counted = stockCounts.newCount();
+        int outlets = stockStore.getOutletCount();
+        for (Stock s : stocks()) { //count for every stock 
             System.out.print("Model: " + s.getModel() + " – Counted: ");
-            int counted = Integer.parseInt(sc.nextLine()); //to convert string into number
+            int count;
+            try {
+                count = Integer.parseInt(sc().nextLine().trim()); //to convert string into number
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid number, model skipped.\n");
+                continue;
+            }
             System.out.println("Store Record: " + s.getQuantity());
 
-            if (counted == s.getQuantity()) {
-            System.out.println("Stock tally correct.\n");
-            correct++;
+            if (count == s.getQuantity()) {
+                System.out.println("Stock tally correct.\n");
             } else {
-            int diff = Math.abs(counted - s.getQuantity()); // to get diff if mismatch
-            System.out.println("! Mismatch detected (" + diff + " unit difference)\n");
-            mismatch++; // to put in summary total mismatch
-            } 
+                int diff = Math.abs(count - s.getQuantity()); // to get diff if mismatch
+                System.out.println("! Mismatch detected (" + diff + " unit difference)\n");
+            }
+            counted[s.getModelId() * outlets + s.getOutletId()] = count;
+        }
+        saveCount(counted, type);
+    }
+
+    // Counted quantities exported from a handheld scanner, checked in one go
+    private static void bulkStockCount() {
+        System.out.println("\n=== Bulk Stock Count ===");
+        System.out.print("Count (Morning / Night): ");
+        String type = sc().nextLine().trim();
+        if (!type.equalsIgnoreCase("Morning") && !type.equalsIgnoreCase("Night")) {
+            System.out.println("Invalid count type.");
+            return;
+        }
+        type = type.equalsIgnoreCase("Morning") ? "Morning" : "Night";
+        System.out.println("File lines: model,counted (this outlet) or model,outlet,counted");
+        System.out.print("File: ");
+        File file = new File(sc().nextLine().trim());
+        if (!file.isFile()) {
+            System.out.println("File not found.");
+            return;
+        }
+        int col = stockStore.findOutlet(currentUser().getOutlet().split(" ")[0]);
+        List<String> errors = new ArrayList<>();
+        int[] counted;
+        try {
+            counted = stockCounts.read(file, col, errors);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Error reading count file: " + e.getMessage());
+            return;
+        }
+        for (int i = 0; i < errors.size() && i < 10; i++) System.out.println("Skipped - " + errors.get(i));
+        if (errors.size() > 10) System.out.println("... " + (errors.size() - 10) + " more lines skipped");
+        StockCounts.Result r = saveCount(counted, type);
+        if (r == null) return;
+        for (int k = 0; k < r.getMismatches() && k < 20; k++) {
+            System.out.println("! " + r.getModel(stockStore, k) + " @ " + r.getOutlet(stockStore, k)
+                    + ": record " + r.getExpected(k) + ", counted " + r.getCounted(k));
+        }
+        if (r.getMismatches() > 20) System.out.println("... " + (r.getMismatches() - 20) + " more in the report");
+    }
+
+    // Records the count and prints the summary; null if nothing was counted or saving failed
+    private static StockCounts.Result saveCount(int[] counted, String type) {
+        StockCounts.Result r;
+        try {
+            r = stockCounts.reconcile(counted, type, currentUser().getName());
+        } catch (IOException e) {
+            System.out.println("Error saving stock count.");
+            return null;
         }
         // ===== SUMMARY =====
-        System.out.println("Total Models Checked: " + totalModels);
-        System.out.println("Tally Correct: " + correct);
-        System.out.println("Mismatches: " + mismatch);
-        
-        if (mismatch > 0) {
-        System.out.println(type + " stock count completed. Warning: Please verify stock.");
+        System.out.println("Total Models Checked: " + r.getChecked());
+        System.out.println("Tally Correct: " + r.getCorrect());
+        System.out.println("Mismatches: " + r.getMismatches());
+        if (r.getChecked() == 0) {
+            System.out.println("Nothing counted.");
+            return null;
+        }
+        if (r.getMismatches() > 0) {
+            System.out.println("Net Difference: " + r.getNetDifference() + " units");
+            System.out.println("Report: " + r.getReport().getPath());
+            System.out.println(type + " stock count completed. Warning: Please verify stock.");
         } else {
             System.out.println(type + " stock count completed.");
         }
+        return r;
+    }
+
+    private static void countHistory() {
+        System.out.println("\n=== Stock Count History ===");
+        System.out.print("Days back (default 30): ");
+        String input = sc().nextLine().trim();
+        int days;
+        try {
+            days = input.isEmpty() ? 30 : Integer.parseInt(input);
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid Input");
+            return;
+        }
+        LocalDate to = LocalDate.now(), from = to.minusDays(Math.max(days, 1) - 1);
+        try {
+            List<StockCounts.Session> sessions = stockCounts.sessions(from, to);
+            if (sessions.isEmpty()) {
+                System.out.println("No stock counts since " + from + ".");
+                return;
+            }
+            System.out.printf("%-20s %-8s %-16s %8s %10s %8s%n", "Time", "Count", "By", "Checked", "Mismatch", "Net");
+            for (StockCounts.Session c : sessions) {
+                System.out.printf("%-20s %-8s %-16s %8d %10d %8d%n", c.getTime().toString().replace('T', ' '),
+                        c.getType(), c.getEmployee(), c.getChecked(), c.getMismatches(), c.getNetDifference());
+            }
+            List<StockCounts.Drift> drift = stockCounts.drift(from, to);
+            if (drift.isEmpty()) return;
+            System.out.println("\n--- Most Drift (model @ outlet) ---");
+            for (int i = 0; i < drift.size() && i < 10; i++) {
+                StockCounts.Drift d = drift.get(i);
+                System.out.println(d.getModel() + " @ " + d.getOutlet() + ": wrong " + d.getTimes() + " of "
+                        + sessions.size() + " counts, net " + d.getNetDifference() + ", off " + d.getAbsDifference()
+                        + " units (last " + d.getLast().toLocalDate() + ")");
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Error reading count history.");
+        }
     }
 
     private static void stockIn() {
@@ -305,30 +576,12 @@ public class StoreSystem {
         System.out.println("Date: " + LocalDate.now());
         System.out.println("Time: " + formatTime(LocalTime.now()));
         System.out.print("From (HQ / Other Outlet): ");
-        String fromOutlet = sc.nextLine().trim();
-        String currentOutlet = currentUser.getOutlet().split(" ")[0]; // to separate use split and [0] to get first index in array
+        String fromOutlet = sc().nextLine().trim();
+        String currentOutlet = currentUser().getOutlet().split(" ")[0]; // to separate use split and [0] to get first index in array
         int totalQty = 0;
-        
-        File file = new File("model.csv");
-        List<String[]> rows = new ArrayList<>();
-
-        try (Scanner fs = new Scanner(file)) {
-            while (fs.hasNextLine()) {
-                rows.add(fs.nextLine().split(","));
-            }
-        } catch (Exception e) {
-            System.out.println("Error reading model.csv");
-            return;
-        }
 
-        // find column index
-        String[] header = rows.get(0);
-        int fromIndex = -1, toIndex = -1;
-
-        for (int i = 0; i < header.length; i++) {
-            if (header[i].equalsIgnoreCase(fromOutlet)) fromIndex = i;
-            if (header[i].equalsIgnoreCase(currentOutlet)) toIndex = i;
-        }
+        int fromIndex = stockStore.findOutlet(fromOutlet);
+        int toIndex = stockStore.findOutlet(currentOutlet);
 
         if (fromIndex == -1 || toIndex == -1) {
             System.out.println("Invalid outlet code.");
@@ -338,56 +591,34 @@ public class StoreSystem {
         Map<String, Integer> receivedModels = new LinkedHashMap<>(); //linkedhashmap selalu digunakan in receipt to get correct order same as user entered
         while (true) {
         System.out.print("Enter Model Name: ");
-        String model = sc.nextLine();
+        String model = sc().nextLine();
 
         System.out.print("Quantity: ");
-        int qty = Integer.parseInt(sc.nextLine());
-
-        boolean updated = false;
+        int qty = Integer.parseInt(sc().nextLine());
 
         // update stock
-        for (int i = 1; i < rows.size(); i++) {
-            if (rows.get(i)[0].equalsIgnoreCase(model)) {
-
-                int fromQty = Integer.parseInt(rows.get(i)[fromIndex]);
-                int toQty = Integer.parseInt(rows.get(i)[toIndex]);
-
-                if (fromQty < qty) {
-                    System.out.println("Insufficient stock in " + fromOutlet);
-                    return;
-                }
-
-                rows.get(i)[fromIndex] = String.valueOf(fromQty - qty);
-                rows.get(i)[toIndex] = String.valueOf(toQty + qty);
-                updated = true;
-                break;
-            }
-        }
-
-        if (!updated) {
+        int row = stockStore.findModel(model);
+        if (row == -1) {
             System.out.println("Model not found.");
             return;
         }
-
-        // write back to CSV
-        try (PrintWriter pw = new PrintWriter(new FileWriter(file))) {
-            for (String[] row : rows) {
-                pw.println(String.join(",", row));
+        try {
+            if (!stockStore.transfer(row, fromIndex, toIndex, qty, currentUser().getName())) {
+                System.out.println("Insufficient stock in " + fromOutlet);
+                return;
             }
-        } catch (Exception e) {
+        } catch (IOException e) {
             System.out.println("Error saving stock.");
             return;
         }
-           loadStock();
             receivedModels.put(model, receivedModels.getOrDefault(model, 0) + qty);
             
             totalQty += qty;
 
             System.out.print("Add more models? (Y/N): ");
-            if (!sc.nextLine().equalsIgnoreCase("Y")) break;
+            if (!sc().nextLine().equalsIgnoreCase("Y")) break;
         }
 
-        saveStock(); //untuk update stock after stock in dalam csv
         // Display output
         System.out.println("\nFrom: " + fromOutlet);
         System.out.println("To: " + currentOutlet);
@@ -400,8 +631,7 @@ public class StoreSystem {
         System.out.println("Model quantities updated successfully.");
         System.out.println("Stock In recorded.");
         
-        saveStock();
-        generateReceipt("Stock In", fromOutlet, currentOutlet, totalQty, currentUser.getName());
+        generateReceipt("Stock In", fromOutlet, currentOutlet, totalQty, currentUser().getName());
     }
 
     private static void stockOut() {
@@ -410,251 +640,286 @@ public class StoreSystem {
         System.out.println("Date: " + LocalDate.now());
         System.out.println("Time: " + formatTime(LocalTime.now()));
         System.out.print("To (Outlet / Customer): ");
-        String to = sc.nextLine().trim();
-        String currentOutlet = currentUser.getOutlet().split(" ")[0];
+        String to = sc().nextLine().trim();
+        String currentOutlet = currentUser().getOutlet().split(" ")[0];
         int totalQty = 0;
 
         while (true) {
         System.out.print("Enter Model Name: ");
-        String model = sc.nextLine();
+        String model = sc().nextLine();
 
         System.out.print("Quantity: ");
-        int qty = Integer.parseInt(sc.nextLine());
-
-        boolean updated = false;
-
-        File file = new File("model.csv");
-        List<String[]> rows = new ArrayList<>();
+        int qty = Integer.parseInt(sc().nextLine());
 
-        try (Scanner fs = new Scanner(file)) {
-            while (fs.hasNextLine()) {
-                rows.add(fs.nextLine().split(","));
-            }
-        } catch (Exception e) {
-            System.out.println("Error reading model.csv");
+        int row = stockStore.findModel(model);
+        if (row == -1) {
+            System.out.println("Model not found.");
             return;
         }
 
-        String[] header = rows.get(0);
-        int fromIndex = -1, toIndex = -1;
-
-        for (int i = 0; i < header.length; i++) {
-            if (header[i].equalsIgnoreCase(currentOutlet)) fromIndex = i;
-            if (!to.equalsIgnoreCase("CUSTOMER") && header[i].equalsIgnoreCase(to)) {
-                toIndex = i;
-            }
-        }
-
-        // update stock
-        for (int i = 1; i < rows.size(); i++) {
-            if (rows.get(i)[0].equalsIgnoreCase(model)) {
-                int fromQty = Integer.parseInt(rows.get(i)[fromIndex]);
-
-                if (fromQty < qty) {
-                    System.out.println("Error: Insufficient stock in " + currentOutlet);
-                    return;
-                }
-
-                rows.get(i)[fromIndex] = String.valueOf(fromQty - qty);
-
-                // only increase if TO is an outlet
-                if (toIndex != -1) {
-                    int toQty = Integer.parseInt(rows.get(i)[toIndex]);
-                    rows.get(i)[toIndex] = String.valueOf(toQty + qty);
-                }
-
-                updated = true;
-                break;
-            }
-        }
+        int fromIndex = stockStore.findOutlet(currentOutlet);
+        int toIndex = to.equalsIgnoreCase("CUSTOMER") ? -1 : stockStore.findOutlet(to); // only increase if TO is an outlet
 
-        if (!updated) {
-            System.out.println("Model not found.");
+        if (fromIndex == -1) {
+            System.out.println("Invalid outlet code.");
             return;
         }
 
-        // write back CSV
-        try (PrintWriter pw = new PrintWriter(new FileWriter(file))) {
-            for (String[] row : rows) {
-                pw.println(String.join(",", row));
+        // update stock
+        try {
+            if (!stockStore.transfer(row, fromIndex, toIndex, qty, currentUser().getName())) {
+                System.out.println("Error: Insufficient stock in " + currentOutlet);
+                return;
             }
-        } catch (Exception e) {
+        } catch (IOException e) {
             System.out.println("Error saving stock.");
             return;
         }
+        totalQty += qty;
 
             System.out.print("Add more models? (Y/N): ");
-            if (!sc.nextLine().equalsIgnoreCase("Y")) break;
+            if (!sc().nextLine().equalsIgnoreCase("Y")) break;
         }
-        loadStock();
-        saveStock();
         
-        generateReceipt("Stock Out", currentOutlet, to, totalQty, currentUser.getName());
+        generateReceipt("Stock Out", currentOutlet, to, totalQty, currentUser().getName());
     }
     
-    private static void generateReceipt(String type, String from, String to, int totalQty, String employee) {
-        String fileName = "stock_receipt_" + LocalDate.now() + ".txt";
-        try (PrintWriter pw = new PrintWriter(new FileWriter(fileName, true))) {
-            pw.println("=== " + type.toUpperCase() + " ===");
-            pw.println("Date: " + LocalDate.now());
-            pw.println("Time: " + formatTime(LocalTime.now()));
-            pw.println("From: " + from);
-            pw.println("To: " + to);
-            pw.println("Total Quantity: " + totalQty);
-            pw.println("Handled by: " + employee);
-            pw.println("----------------------------");
-            
-            System.out.println("Stock updated successfully.");
-            System.out.println("Receipt generated: " + fileName);
-        } catch (IOException e) {
-            System.out.println("Error generating receipt file.");
+    // Low stock suggestions for this outlet (every outlet for the warehouse), approved as a Stock In
+    private static void replenishmentQueue() {
+        String currentOutlet = currentUser().getOutlet().split(" ")[0];
+        int col = stockStore.findOutlet(currentOutlet);
+        if (col == -1) {
+            System.out.println("Invalid outlet code.");
+            return;
         }
-    }
-    // ================= FILE HANDLING =================
-    private static void loadData() {
-        try {
-           //Load outlets
-            Scanner oSc = new Scanner(new File(OUTLET_FILE));
-            while (oSc.hasNextLine()) {
-                String[] p = oSc.nextLine().split(",");
-                outletMap.put(p[0].trim(), p[1].trim());
+        if (currentOutlet.equalsIgnoreCase(config.getProperty("stock.warehouse", "HQ").trim())) col = -1;
+        while (true) {
+            List<Replenishment.Suggestion> queue = replenishment.pending(col);
+            System.out.println("\n=== REPLENISHMENT QUEUE ===");
+            if (queue.isEmpty()) System.out.println("No low stock.");
+            for (int i = 0; i < queue.size(); i++) {
+                Replenishment.Suggestion s = queue.get(i);
+                String move = s.getFromId() == -1 ? "no outlet can spare any, order " + s.getQuantity() + " from supplier"
+                        : "move " + s.getQuantity() + " from " + stockStore.getOutlet(s.getFromId())
+                        + " (" + stockStore.getQuantity(s.getModelId(), s.getFromId()) + " on hand)";
+                System.out.println((i + 1) + ". " + stockStore.getModel(s.getModelId()) + " @ "
+                        + stockStore.getOutlet(s.getOutletId()) + ": " + s.getOnHand() + " left (reorder at "
+                        + s.getReorderPoint() + ") -> " + move);
             }
-            oSc.close();
-
-            //Load employees
-            Scanner eSc = new Scanner(new File(EMPLOYEE_FILE));
-            while (eSc.hasNextLine()) {
-                String[] p = eSc.nextLine().split(",");
-
-                String id = p[0].trim();
-                String name = p[1].trim();
-                String role = p[2].trim();
-                String pass = p[3].trim();
-
-                String code = id.substring(0, 3);
-                String outlet = code + " (" + outletMap.get(code) + ")";
-               employees.add(new Employee(id, name, role, pass, outlet));
-            }  eSc.close();
-        } catch (Exception e) {
-            System.out.println("Error loading data.");
+            System.out.print("Number to approve, D<number> to dismiss, R to set a reorder point, blank to go back: ");
+            String input = sc().nextLine().trim();
+            if (input.isEmpty()) return;
+            if (input.equalsIgnoreCase("R")) {
+                setReorderPoint();
+                continue;
             }
-        loadStock();
-    }
-
-    private static void loadStock() {
-        stocks.clear(); // Clear existing list to prevent duplicates
-        if (currentUser == null) return;
-
-        File file = new File("model.csv");
-        if (!file.exists()) return;
-
-        try (Scanner fs = new Scanner(file)) {
-            if (!fs.hasNextLine()) return;
-
-            // 1. Find which column belongs to this user's outlet
-            String headerLine = fs.nextLine();
-            String[] headers = headerLine.split(",");
-            int outletColumnIndex = -1;
-            String userOutletCode = currentUser.getOutlet().split(" ")[0];
-
-            for (int i = 0; i < headers.length; i++) {
-                if (headers[i].trim().equalsIgnoreCase(userOutletCode)) {
-                    outletColumnIndex = i;
-                    break;
-                }
+            boolean dismiss = input.toUpperCase().startsWith("D");
+            int n;
+            try {
+                n = Integer.parseInt(dismiss ? input.substring(1).trim() : input) - 1;
+            } catch (NumberFormatException e) {
+                n = -1;
             }
-
-            if (outletColumnIndex == -1) {
-                System.out.println("Error: Column for " + userOutletCode + " not found in model.csv");
-                return;
+            if (n < 0 || n >= queue.size()) {
+                System.out.println("Invalid choice");
+                continue;
             }
-
-            // 2. Load the models and the quantities from that specific column
-            while (fs.hasNextLine()) {
-                String line = fs.nextLine();
-                if (line.trim().isEmpty()) continue;
-                String[] parts = line.split(",");
-                String modelName = parts[0];
-                double price = Double.parseDouble(parts[1].trim());
-                int qty = Integer.parseInt(parts[outletColumnIndex].trim());
-                
-                Stock s = new Stock(modelName, qty, userOutletCode, price);
-                stocks.add(s);
+            Replenishment.Suggestion s = queue.get(n);
+            if (dismiss) {
+                replenishment.dismiss(s);
+                continue;
             }
-        } catch (Exception e) {
-            System.out.println("Error loading stock: " + e.getMessage());
+            Replenishment.Move m;
+            try {
+                m = replenishment.approve(s, currentUser().getName());
+            } catch (IOException e) {
+                System.out.println("Error saving stock.");
+                continue;
+            }
+            if (m == null) {
+                System.out.println("Error: Nothing to move or the source no longer has the stock, suggestion kept.");
+                continue;
+            }
+            if (m.getFromId() == -1) { // nothing moved, the suggestion stays until the stock arrives
+                System.out.println("No outlet can spare any: order " + m.getQuantity() + " of "
+                        + stockStore.getModel(m.getModelId()) + " from the supplier.");
+                continue;
+            }
+            // the move approve() made, which may differ from the listing if stock changed meanwhile
+            generateReceipt("Stock In", stockStore.getOutlet(m.getFromId()), stockStore.getOutlet(m.getToId()),
+                    m.getQuantity(), currentUser().getName());
         }
     }
 
-    private static void saveStock() {
-
-    File file = new File("model.csv");
-    List<String[]> rows = new ArrayList<>();
+    private static void setReorderPoint() {
+        System.out.print("Model Name: ");
+        int row = stockStore.findModel(sc().nextLine());
+        System.out.print("Outlet code: ");
+        int col = stockStore.findOutlet(sc().nextLine());
+        if (row == -1 || col == -1) {
+            System.out.println("Model or outlet not found.");
+            return;
+        }
+        System.out.println("Current: reorder at " + replenishment.getReorderPoint(row, col) + ", refill to " + replenishment.getTarget(row, col));
+        try {
+            System.out.print("Reorder point (-1 for no alerts): ");
+            int point = Integer.parseInt(sc().nextLine().trim());
+            System.out.print("Refill to: ");
+            int target = Integer.parseInt(sc().nextLine().trim());
+            replenishment.setReorderPoint(row, col, Math.max(point, Replenishment.NONE), target);
+            System.out.println("Reorder point saved.");
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid Input");
+        } catch (IOException e) {
+            System.out.println("Error saving reorder points.");
+        }
+    }
 
-    try (Scanner sc = new Scanner(file)) {
-        while (sc.hasNextLine()) {
-            rows.add(sc.nextLine().split(","));
+    private static void generateReceipt(String type, String from, String to, int totalQty, String employee) {
+        String fileName = "stock_receipt_" + LocalDate.now() + ".txt";
+        StringWriter receipt = new StringWriter();
+        PrintWriter pw = new PrintWriter(receipt);
+        pw.println("=== " + type.toUpperCase() + " ===");
+        pw.println("Date: " + LocalDate.now());
+        pw.println("Time: " + formatTime(LocalTime.now()));
+        pw.println("From: " + from);
+        pw.println("To: " + to);
+        pw.println("Total Quantity: " + totalQty);
+        pw.println("Handled by: " + employee);
+        pw.println("----------------------------");
+        receipts.submit(fileName, receipt.toString()); // written in the background
+
+        System.out.println("Stock updated successfully.");
+        System.out.println("Receipt generated: " + fileName);
+    }
+    // ================= FILE HANDLING =================
+    private static void loadConfig() {
+        try (FileReader r = new FileReader(CONFIG_FILE)) {
+            config.load(r);
+        } catch (FileNotFoundException e) {
+            // no store.properties, defaults
+        } catch (IOException e) {
+            System.out.println("Error loading " + CONFIG_FILE + ": " + e.getMessage());
         }
-    } catch (Exception e) {
-        System.out.println("Error reading model.csv");
-        return;
     }
 
-    String userOutletCode = currentUser.getOutlet().split(" ")[0];
+    // storage.backend=csv (the files named above) or kv (everything in storage.file, filled
+    // from the csv files the first time). The stock journal and the sales ledger stay files.
+    private static void openStorage() throws IOException {
+        StorageBackend files = StorageBackend.csv(new File(EMPLOYEE_FILE), new File(ATTENDANCE_DIR),
+                new File(STOCK_FILE), new File(SALES_DIR));
+        StorageBackend storage = files;
+        String backend = config.getProperty("storage.backend", "csv").trim();
+        if (backend.equalsIgnoreCase("kv")) {
+            storage = StorageBackend.kv(new File(config.getProperty("storage.file", "store.kv").trim()), files);
+        } else if (!backend.equalsIgnoreCase("csv")) {
+            System.out.println("Unknown storage.backend, using csv.");
+        }
+        employees = new EmployeeDirectory(storage.employees());
+        attendance = new AttendanceLog(storage.attendance());
+        salesHistory = new SalesStore(new File(SALES_DIR), storage.sales());
+        stockStore = new StockStore(storage.stock(), new File(STOCK_FILE + ".journal"));
+        stockCounts = new StockCounts(new File(COUNT_DIR), stockStore);
+    }
 
-    // Find outlet column index
-    String[] header = rows.get(0);
-    int outletIndex = -1;
+    private static void loadData() {
+        //The receipt writer the settings configure
+        ReceiptWriter.Durability durability = ReceiptWriter.Durability.FLUSH;
+        try {
+            durability = ReceiptWriter.Durability.valueOf(config.getProperty("receipts.durability", "flush").trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Unknown receipts.durability, using flush.");
+        }
+        receipts = new ReceiptWriter(new File("."),
+                Integer.parseInt(config.getProperty("receipts.queue", "1024")),
+                Long.parseLong(config.getProperty("receipts.flushMillis", "1000")), durability);
 
-    for (int i = 0; i < header.length; i++) {
-        if (header[i].equalsIgnoreCase(userOutletCode)) {
-            outletIndex = i;
-            break;
+        ReceiptWriter.Durability ledgerDurability = ReceiptWriter.Durability.FSYNC;
+        try {
+            ledgerDurability = ReceiptWriter.Durability.valueOf(config.getProperty("ledger.durability", "fsync").trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Unknown ledger.durability, using fsync.");
         }
-    }
+        salesLedger = new SalesLedger(new File(SALES_DIR, "ledger.wal"), salesHistory, stockStore, ledgerDurability);
 
-    if (outletIndex == -1) return;
+        reportMailer = new ReportMailer(config, new File(OUTBOX_DIR));
+        reportMailer.start(); // send anything left in the outbox last time
 
-    // Update quantities
-    for (int i = 1; i < rows.size(); i++) {
-        String modelName = rows.get(i)[0];
+        try {
+            //Load outlets
+            CsvReader.read(new File(OUTLET_FILE), row -> outletMap.put(row.getString(0), row.getString(1)));
 
-        for (Stock s : stocks) {
-            if (s.getModel().equalsIgnoreCase(modelName)) {
-                rows.get(i)[outletIndex] = String.valueOf(s.getQuantity());
+            //Load employees (plain text passwords are hashed the first time)
+            employees.load(outletMap);
+        } catch (Exception e) {
+            System.out.println("Error loading data.");
             }
+
+        //Load open shifts (moving an old attendance.csv into attendance/ first)
+        try {
+            attendance.load();
+            attendance.migrate(new File(ATTENDANCE_FILE));
+        } catch (Exception e) {
+            System.out.println("Error loading attendance: " + e.getMessage());
         }
-    }
 
-    // Write back
-    try (PrintWriter pw = new PrintWriter(new FileWriter(file))) {
-        for (String[] row : rows) {
-            pw.println(String.join(",", row));
+        //Load sales history
+        try {
+            salesHistory.load();
+        } catch (Exception e) {
+            System.out.println("Error loading sales history: " + e.getMessage());
         }
-    } catch (Exception e) {
-        System.out.println("Error saving stock");
+        salesByDate = new SalesIndex(salesHistory);
+        salesByKeyword = new SalesTextIndex(salesHistory);
+        salesTotals = new SalesAggregates(salesHistory);
+        try {
+            salesRollups.load(salesHistory);
+        } catch (Exception e) {
+            System.out.println("Error loading sales rollups: " + e.getMessage());
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(StoreSystem::saveRollups, "rollups-save"));
+
+        //Load all stock once (snapshot + journal), then finish any checkout the sales ledger holds;
+        //the journal is folded back into model.csv in the background
+        try {
+            stockStore.load();
+            int replayed = salesLedger.recover();
+            if (replayed > 0) System.out.println("Recovered " + replayed + " unsaved transaction(s).");
+            stockStore.startCompactor(30000);
+        } catch (Exception e) {
+            System.out.println("Error loading stock: " + e.getMessage());
+        }
+        //Low stock alerts follow every stock change from here on
+        replenishment = new Replenishment(new File(REORDER_FILE),
+                Integer.parseInt(config.getProperty("stock.reorderPoint", "2").trim()),
+                config.getProperty("stock.warehouse", "HQ").trim());
+        try {
+            replenishment.attach(stockStore);
+        } catch (Exception e) {
+            System.out.println("Error loading reorder points: " + e.getMessage());
+        }
+        loadStock();
     }
-}
 
+    private static void loadStock() {
+        stocks().clear(); // Clear existing list to prevent duplicates
+        if (currentUser() == null) return;
 
-    private static void saveEmployees() {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(EMPLOYEE_FILE))) {
-            for (Employee e : employees) {
-                pw.println(e.getId() + "," + e.getName() + "," + e.getRole() + "," + e.getPassword());
-            }
-        } catch (IOException e) {
-            System.out.println("Error saving employees.");
+        // 1. Find which column belongs to this user's outlet
+        String userOutletCode = currentUser().getOutlet().split(" ")[0];
+        int outletColumnIndex = stockStore.findOutlet(userOutletCode);
+
+        if (outletColumnIndex == -1) {
+            System.out.println("Error: Column for " + userOutletCode + " not found in model.csv");
+            return;
         }
-    }
 
-    private static void saveAttendance() {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(ATTENDANCE_FILE, true))) {
-            for (Attendance a : attendanceLogs) pw.println(a.toCSV());
-        } catch (IOException e) {
-            System.out.println("Error saving attendance.");
+        // 2. One live view per model for that specific column
+        for (int row = 0; row < stockStore.getModelCount(); row++) {
+            stocks().add(new Stock(stockStore, row, outletColumnIndex));
         }
     }
-    
+
     private static void runSalesModule() {
     boolean back = false;
     while (!back) {
@@ -662,15 +927,17 @@ public class StoreSystem {
         System.out.println("1. Record New Sale");
         System.out.println("2. Search Stock (This Outlet)");
         System.out.println("3. Search Sales History");
-        System.out.println("4. Back");
+        System.out.println("4. Stock Across Outlets");
+        System.out.println("5. Back");
         System.out.print("> ");
-        String choice = sc.nextLine();
+        String choice = sc().nextLine();
 
         switch (choice) {
             case "1": performNewSale(); break;
             case "2": performStockSearch(); break;
             case "3": performSalesSearch(); break;
-            case "4": back = true; break;
+            case "4": SearchInformation.stockAcrossOutlets(stockStore, outletMap, sc()); break;
+            case "5": back = true; break;
         }
     }
 }
@@ -682,111 +949,115 @@ private static void performNewSale() {
     String date = LocalDate.now().toString();
     String time = formatTime(LocalTime.now());
     System.out.print("Customer Name: ");
-    String customer = sc.nextLine();
+    String customer = sc().nextLine();
     
-    double subtotal = 0;
     String choice = null;
+    // Items are reserved as they are entered and saved together once the payment method is known
+    Transaction sale = new Transaction(date, time, customer, currentUser().getName(), currentUser().getOutlet().split(" ")[0]);
     
     System.out.println("Item(s) Purchased:");
     do {
     System.out.print("Model Name: ");
-    String model = sc.nextLine();
+    String model = sc().nextLine();
     
     // Find model in the 'stocks' list already loaded by the system
-    Stock target = null;
-    for (Stock s : stocks) {
-        if (s.getModel().equalsIgnoreCase(model)) {
-            target = s;
-            break;
-        }
-    }
+    Stock target = Stock.find(stocks(), stockStore, model);
 
     if (target == null) {
         System.out.println("Product not found in this outlet.");
+        choice = askMoreItems();
         continue;
     }
     
     System.out.print("Enter Quantity: ");
-    int qty = Integer.parseInt(sc.nextLine());
+    int qty;
+    try {
+        qty = Integer.parseInt(sc().nextLine().trim());
+    } catch (NumberFormatException e) {
+        System.out.println("Invalid Input");
+        choice = askMoreItems();
+        continue;
+    }
     
-    if (qty <= 0 || qty > target.getQuantity()) {
+    // Check and hold the stock in one step, another till may be selling the same model
+    if (!sale.addItem(target, qty)) {
         System.out.println("Insufficient stock!");
+        choice = askMoreItems();
         continue;
     }
-    target.setQuantity(target.getQuantity() - qty);
-    double itemTotal = target.getPrice() * qty;
-    subtotal += itemTotal;
-    
-    SaleRecord s = new SaleRecord(
-        LocalDate.now().toString(), 
-        formatTime(LocalTime.now()), 
-        customer, model, qty, itemTotal, "", 
-        currentUser.getName() // Captures current employee name
-    );
-    salesHistory.add(s);
     
-    System.out.printf("Unit Price: RM%.2f%n" , target.getPrice());
-    System.out.print("\nAre there more items purchased? (Y/N): ");
-    choice = sc.nextLine();
+    System.out.println("Unit Price: RM" + Money.format(target.getPriceCents()));
+    choice = askMoreItems();
     } while(choice.equalsIgnoreCase("Y"));
     
+    if (sale.isEmpty()) {
+        System.out.println("No items purchased.");
+        return;
+    }
     System.out.print("Enter transaction method: ");
-    String method = sc.nextLine();
-    System.out.printf("Subtotal: RM%.2f%n" , subtotal);
+    String method = sc().nextLine();
+    System.out.println("Subtotal: RM" + Money.format(sale.getSubtotalCents()));
     System.out.println();
 
-// Update all the items from this transaction with method
-    for (SaleRecord s : salesHistory) {
-    if (s.getCustomerName().equals(customer) &&
-        s.getDate().equals(date) &&
-        s.getMethod().isEmpty()) {
-        s.setMethod(method);
-        generateSalesReceipt(s);
+    // One ledger record for the whole checkout, then one receipt
+    try {
+        sale.commit(salesLedger, method);
+    } catch (IOException e) {
+        System.out.println("Error saving sales record.");
+        sale.cancel();
+        return;
     }
-}
+    generateSalesReceipt(sale);
     
-    saveStock(); // Save update to model.csv
-    System.out.println("\nTransaction" + " successful.");
+    System.out.println("\nTransaction " + sale.getId() + " successful.");
     System.out.println("Sale Recorded Successfully!");
     System.out.println("Model quantities updated successfully.");
-    System.out.println("Receipt generated: sales_" + LocalDate.now() + ".txt");
-} 
+    System.out.println("Receipt generated: sales_receipt_" + sale.getDate() + ".txt");
+}
+
+private static String askMoreItems() {
+    System.out.print("\nAre there more items purchased? (Y/N): ");
+    return sc().nextLine();
+}
 
 // --- FEATURE: SEARCH STOCK ---
 private static void performStockSearch() {
     System.out.println("\n=== Search Stock Information ===");
     System.out.print("Search Model Name: ");
-    String modelName = sc.nextLine();
+    String modelName = sc().nextLine();
     System.out.print("Searching...\n");
     System.out.println();
-    SearchInformation.searchStock(modelName, (ArrayList<Stock>) stocks, outletMap);
+    SearchInformation.searchStock(modelName, stockStore, outletMap);
 }
 
 // --- FEATURE: SEARCH SALES ---
 private static void performSalesSearch() {
     System.out.println("\n=== Search Sales Information ===");
     System.out.print("Search keyword (date/ customer name/ model name): ");
-    String keyword = sc.nextLine();
+    String keyword = sc().nextLine();
     System.out.print("Searching...\n");
 
-    SearchInformation.searchSales(keyword, (ArrayList<SaleRecord>) salesHistory);
+    SearchInformation.searchSales(keyword, salesHistory, salesByKeyword);
 }
 
 // --- HELPER: GENERATE SALES RECEIPT FILE ---
- private static void generateSalesReceipt(SaleRecord s) {
-    String fileName = "sales_receipt_" + s.getDate() + ".txt";
-    try (PrintWriter out = new PrintWriter(new FileWriter(fileName, true))) {
-        out.println("=== OFFICIAL RECEIPT ===");
-        out.println("Date: " + s.getDate() + "\tTime: " + s.getTime());
-        out.println("Customer: " + s.getCustomerName());
-        out.println("Item: " + s.getModelName() + "\tQuantity: " + s.getQuantity());
-        out.printf("Total: RM %.2f%n" , s.getTotal());
-        out.println("Payment Method: " + s.getMethod());
-        out.println("Employee: " + s.getEmployee());
-        out.println("---------------------------");
-    } catch (IOException e) {
-        System.out.println("Error saving receipt file.");
+ private static void generateSalesReceipt(Transaction t) {
+    String fileName = "sales_receipt_" + t.getDate() + ".txt";
+    String nl = System.lineSeparator();
+    StringBuilder out = new StringBuilder(256);
+    out.append("=== OFFICIAL RECEIPT ===").append(nl);
+    out.append("Transaction: ").append(t.getId()).append(nl);
+    out.append("Date: ").append(t.getDate()).append("\tTime: ").append(t.getTime()).append(nl);
+    out.append("Customer: ").append(t.getCustomer()).append(nl);
+    for (Transaction.Item item : t.getItems()) {
+        out.append("Item: ").append(item.getModel()).append("\tQuantity: ").append(item.getQuantity()).append("\tRM ");
+        Money.append(out, item.getCents()).append(nl);
     }
+    Money.append(out.append("Total: RM "), t.getSubtotalCents()).append(nl);
+    out.append("Payment Method: ").append(t.getMethod()).append(nl);
+    out.append("Employee: ").append(t.getEmployee()).append(nl);
+    out.append("---------------------------").append(nl);
+    receipts.submit(fileName, out.toString()); // written in the background
   }
 
 private static String formatTime(LocalTime t) {
@@ -798,71 +1069,39 @@ private static String formatTime(LocalTime t) {
 
 private static void sendDailyReport() {
     LocalDate today = LocalDate.now();
-        LocalTime now = LocalTime.now();
-        LocalTime deadline = LocalTime.of(22, 0); // 10:00 PM requirement
-        double dailyTotal = 0;
-
-        for (SaleRecord s : salesHistory) {
-            if (s.getDate().equals(today.toString())) {
-                dailyTotal += s.getTotal();
-            }
-        }
-
-        // --- 2. GMAIL SMTP CONFIGURATION ---
-    final String senderEmail = "nurhasnadirah@gmail.com"; 
-    final String appPassword = "buig mivw gsni ktnr"; // <--- Put your 16-character App Password here
 
-    Properties props = new Properties();
-    props.put("mail.smtp.auth", "true");
-    props.put("mail.smtp.starttls.enable", "true");
-    props.put("mail.smtp.host", "smtp.gmail.com");
-    props.put("mail.smtp.port", "587");
+    // Kept up to date by every sale, no need to go through the history
+    int day = SalesRollups.dayBucket(today);
+    SalesRollups.Totals daily = salesRollups.total(SalesRollups.Granularity.DAY, day, day, SalesRollups.ALL, SalesRollups.ALL);
+    StringBuilder byOutlet = new StringBuilder();
+    for (Map.Entry<Integer, SalesRollups.Totals> e : new TreeMap<>(salesRollups.byOutlet(SalesRollups.Granularity.DAY, day, day, SalesRollups.ALL)).entrySet()) {
+        if (e.getValue().isEmpty()) continue;
+        String code = salesHistory.outlets().name(e.getKey());
+        byOutlet.append("  ").append(code.isEmpty() ? "(not recorded)" : code).append(": RM ")
+                .append(Money.format(e.getValue().getCents())).append(" (").append(e.getValue().getTransactions()).append(" checkouts)\n");
+    }
 
-    // --- 3. CREATE SESSION ---
-    Session session;
-        session = Session.getInstance(props, new jakarta.mail.Authenticator() {
-            @Override
-            protected jakarta.mail.PasswordAuthentication getPasswordAuthentication() {
-                return new jakarta.mail.PasswordAuthentication(senderEmail, appPassword);
-            }
-        });
+    String summary = "Hello HQ,\n\n" + "Summary for " + today + ":\n" + "Total Sales: RM " + Money.format(daily.getCents()) + "\n"
+            + "Checkouts: " + daily.getTransactions() + "\tUnits sold: " + daily.getUnits() + "\n"
+            + (byOutlet.length() > 0 ? "By outlet:\n" + byOutlet : "") + "\n" + "The receipt file is attached below.";
+    String fileName = "sales_receipt_" + today + ".txt";
+    receipts.flush(); // receipts still queued must be in the file before it is attached
 
+    // Saved to the outbox and sent in the background, the terminal does not wait for the mail server
     try {
-        // --- 4. CONSTRUCT THE EMAIL (MimeMessage) ---
-        Message message = new MimeMessage(session);
-        message.setFrom(new InternetAddress(senderEmail));
-        
-        // Recipient is your student email as per assignment requirement
-        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse("nurhasnadirah@gmail.com"));
-        message.setSubject("Daily Sales Report - " + today);
-
-        // CREATE MULTIPART (Summary + Attachment)
-        Multipart multipart = new MimeMultipart();
-
-      
-        MimeBodyPart textPart = new MimeBodyPart();
-        String summary = "Hello HQ,\n\n" + "Summary for " + today + ":\n" + "Total Sales: RM " + String.format("%.2f", dailyTotal) + "\n\n" + "The receipt file is attached below.";
-        textPart.setText(summary);
-        multipart.addBodyPart(textPart);
-
-        // Part 2: Attachment
-        String fileName = "sales_receipt_" + today + ".txt";
-        File receiptFile = new File(fileName);
-        if (receiptFile.exists()) {
-            MimeBodyPart attachmentPart = new MimeBodyPart();
-            attachmentPart.attachFile(receiptFile);
-            multipart.addBodyPart(attachmentPart);
-        }
-
-        message.setContent(multipart);
-
-        // --- 5. SEND ---
-        Transport.send(message);
-        System.out.println("Success: Report sent from nurhasnadirah@gmail.com to HQ.");
-
+        reportMailer.queue("Daily Sales Report - " + today, summary, new File(fileName));
+        System.out.println("Success: Report queued for HQ, it will be sent in the background.");
     } catch (Exception e) {
-        System.err.println("Failed to send email. Check your App Password or Internet.");
-        e.printStackTrace();
+        System.err.println("Failed to queue email: " + e.getMessage());
+    }
+    saveRollups(); // store closing, next start only adds what is sold after this
+}
+
+private static void saveRollups() {
+    try {
+        salesRollups.save();
+    } catch (IOException e) {
+        System.err.println("Error saving sales rollups: " + e.getMessage());
     }
 }
 }
@@ -0,0 +1,119 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Clock in / clock out history by month, by default one file per month:
+// attendance/attendance-YYYY-MM.csv (see AttendanceRepository). Every clock event is
+// appended; a clock out repeats the shift with its out time, so on reading the last
+// copy of a shift wins. Only open shifts are kept in memory.
+public class AttendanceLog {
+    private final AttendanceRepository repository;
+    private final Map<String, Attendance> openShifts = new HashMap<>(); // employee id -> shift without clock out
+
+    public AttendanceLog(File dir) {
+        this(new CsvAttendanceRepository(dir));
+    }
+
+    public AttendanceLog(AttendanceRepository repository) {
+        this.repository = repository;
+    }
+
+    // ================= LOAD =================
+    // A shift can only be closed on the day it started, so today's month holds every open shift
+    public synchronized void load() throws IOException {
+        openShifts.clear();
+        read(YearMonth.now(), a -> {
+            Attendance open = openShifts.get(a.getEmployeeId());
+            if (a.getClockOut() == null) openShifts.put(a.getEmployeeId(), a);
+            else if (open != null && sameShift(open, a)) openShifts.remove(a.getEmployeeId());
+        });
+    }
+
+    // Moves the old single attendance.csv (rewritten in full on every event, so full of repeats) into
+    // the monthly files, once; the old file is kept as .migrated
+    public synchronized void migrate(File legacy) throws IOException {
+        if (!legacy.exists()) return;
+        Map<String, Attendance> shifts = new LinkedHashMap<>(); // last copy of each shift, first-seen order
+        CsvReader.read(legacy, row -> {
+            Attendance a = CsvAttendanceRepository.parse(row);
+            if (a != null) shifts.put(a.getEmployeeId() + "," + a.getDate() + "," + a.getClockIn(), a);
+        });
+        repository.appendAll(new ArrayList<>(shifts.values()));
+        Files.move(legacy.toPath(), new File(legacy.getPath() + ".migrated").toPath(), StandardCopyOption.REPLACE_EXISTING);
+        load();
+    }
+
+    // ================= CLOCK =================
+    // Starts a shift; null if the employee already has one open today
+    public synchronized Attendance clockIn(String employeeId, LocalDate date, LocalTime time, String outlet) throws IOException {
+        Attendance open = getOpenShift(employeeId, date);
+        if (open != null) return null;
+        Attendance a = new Attendance(employeeId, date, time, null, outlet);
+        repository.append(a);
+        openShifts.put(employeeId, a);
+        return a;
+    }
+
+    // Ends today's open shift; null if there is none
+    public synchronized Attendance clockOut(String employeeId, LocalDate date, LocalTime time) throws IOException {
+        Attendance open = getOpenShift(employeeId, date);
+        if (open == null) return null;
+        Attendance closed = new Attendance(employeeId, open.getDate(), open.getClockIn(), time, open.getOutlet());
+        repository.append(closed);
+        openShifts.remove(employeeId);
+        return closed;
+    }
+
+    public synchronized Attendance getOpenShift(String employeeId, LocalDate date) {
+        Attendance a = openShifts.get(employeeId);
+        return a != null && a.getDate().equals(date) ? a : null;
+    }
+
+    // Bulk append for imports; open shifts are reloaded after if this month was touched
+    public synchronized void appendAll(List<Attendance> shifts) throws IOException {
+        repository.appendAll(shifts);
+        YearMonth now = YearMonth.now();
+        for (Attendance a : shifts) {
+            if (YearMonth.from(a.getDate()).equals(now)) {
+                load();
+                return;
+            }
+        }
+    }
+
+    // ================= HISTORY =================
+    // Months that have events, oldest first
+    public List<YearMonth> months() throws IOException {
+        return repository.months();
+    }
+
+    // Streams one month of events in saved order (an open shift followed later by its closed copy)
+    public void read(YearMonth month, Consumer<Attendance> handler) throws IOException {
+        repository.read(month, handler);
+    }
+
+    // ================= HELPERS =================
+    private static boolean sameShift(Attendance a, Attendance b) {
+        return a.getDate().equals(b.getDate()) && a.getClockIn().equals(b.getClockIn());
+    }
+}
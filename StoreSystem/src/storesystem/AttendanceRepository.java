@@ -0,0 +1,30 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.IOException;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Where AttendanceLog keeps clock events, grouped by month: attendance/*.csv
+// (CsvAttendanceRepository) or the key-value store (KvAttendanceRepository), see StorageBackend
+public interface AttendanceRepository {
+    // Saves one clock event after the others of its month
+    void append(Attendance a) throws IOException;
+
+    // Same for many events at once, e.g. an import
+    void appendAll(List<Attendance> events) throws IOException;
+
+    // Months that have events, oldest first
+    List<YearMonth> months() throws IOException;
+
+    // Streams one month of events in the order they were saved
+    void read(YearMonth month, Consumer<Attendance> handler) throws IOException;
+}
@@ -0,0 +1,440 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Bulk import / export of sales, stock and attendance, as CSV (.csv) or a compact binary
+// file (any other name). Imports stream: lines are read in chunks, parsed and checked on
+// a thread pool, and saved in file order, with only a few chunks held at a time.
+//
+// CSV columns:
+//   sales       date,time,customer,model,quantity,total,method,employee,outlet,transaction
+//   stock       model,outlet,quantity
+//   attendance  employeeId,date,clockIn,clockOut,outlet
+public class BulkTransfer {
+    private static final int CHUNK = 50_000;          // lines per parse task
+    private static final int MAX_ERRORS = 20;         // rejected lines listed in the result
+    private static final int SALES_MAGIC = 0x42585331; // "BXS1"
+    private static final int STOCK_MAGIC = 0x42584B31; // "BXK1"
+    private static final int ATTENDANCE_MAGIC = 0x42584131; // "BXA1"
+
+    // What an import did
+    public static class Result {
+        private long imported = 0, rejected = 0;
+        private final List<String> errors = new ArrayList<>();
+
+        public long getImported() { return imported; }
+        public long getRejected() { return rejected; }
+        public List<String> getErrors() { return errors; }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("Imported " + imported + " rows, rejected " + rejected + ".");
+            for (String e : errors) sb.append("\n  ").append(e);
+            if (rejected > errors.size()) sb.append("\n  ...");
+            return sb.toString();
+        }
+    }
+
+    private interface Parser<T> {
+        T parse(String line); // null to skip (header), throws IllegalArgumentException for a bad line
+    }
+
+    private interface Sink<T> {
+        void accept(List<T> rows) throws IOException;
+    }
+
+    private static class Chunk<T> {
+        final List<T> rows = new ArrayList<>();
+        final List<String> errors = new ArrayList<>();
+        long rejected = 0;
+    }
+
+    private final Map<String, String> outletMap;
+    private final int threads;
+
+    // outletMap (code -> name) is what rows are checked against
+    public BulkTransfer(Map<String, String> outletMap) {
+        this.outletMap = outletMap;
+        this.threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+    }
+
+    private static boolean isCsv(File f) {
+        return f.getName().toLowerCase().endsWith(".csv");
+    }
+
+    // ================= SALES =================
+    public Result importSales(File f, SalesStore store) throws IOException {
+        Sink<SaleRecord> sink = store::addBatch;
+        if (isCsv(f)) return importCsv(f, this::parseSale, sink);
+
+        Result result = new Result();
+        try (DataInputStream in = openBinary(f, SALES_MAGIC)) {
+            List<SaleRecord> batch = new ArrayList<>(CHUNK);
+            while (true) {
+                int day;
+                try {
+                    day = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                int minute = in.readShort();
+                int qty = in.readInt();
+                long cents = in.readLong();
+                long txn = in.readLong();
+                SaleRecord s = new SaleRecord(LocalDate.ofEpochDay(day).toString(), SalesStore.formatMinute(minute),
+                        in.readUTF(), in.readUTF(), qty, cents, in.readUTF(), in.readUTF());
+                s.outlet = in.readUTF();
+                s.transactionId = txn;
+                if (!s.outlet.isEmpty() && !outletMap.containsKey(s.outlet)) {
+                    reject(result, "record " + (result.imported + result.rejected + 1), "unknown outlet " + s.outlet);
+                    continue;
+                }
+                batch.add(s);
+                if (batch.size() == CHUNK) flush(batch, sink, result);
+            }
+            flush(batch, sink, result);
+        }
+        return result;
+    }
+
+    private SaleRecord parseSale(String line) {
+        String[] p = split(line, 10);
+        if (p[0].equalsIgnoreCase("date")) return null; // header
+        if (p.length < 8) throw new IllegalArgumentException("expected at least 8 columns");
+        String date = LocalDate.ofEpochDay(SalesStore.toDay(p[0])).toString(); // checks and normalises the date
+        SalesStore.toMinute(p[1]); // checks the time
+        SaleRecord s = new SaleRecord(date, p[1], p[2], p[3], Integer.parseInt(p[4]),
+                Money.parse(p[5]), p[6], p[7]);
+        s.outlet = p.length > 8 ? p[8] : "";
+        if (!s.outlet.isEmpty() && !outletMap.containsKey(s.outlet)) {
+            throw new IllegalArgumentException("unknown outlet " + s.outlet);
+        }
+        s.transactionId = p.length > 9 && !p[9].isEmpty() ? Long.parseLong(p[9]) : 0;
+        return s;
+    }
+
+    public long exportSales(File f, SalesStore store) throws IOException {
+        int n = store.size();
+        if (isCsv(f)) {
+            try (PrintWriter pw = new PrintWriter(new BufferedWriter(new FileWriter(f), 1 << 16))) {
+                pw.println("Date,Time,Customer,Model,Quantity,Total,Method,Employee,Outlet,Transaction");
+                for (int r = 0; r < n; r++) {
+                    long cents = store.getCents(r);
+                    pw.println(LocalDate.ofEpochDay(store.getDay(r)) + "," + SalesStore.formatMinute(store.getMinute(r)) + ","
+                            + store.customers().name(store.getCustomerId(r)) + "," + store.models().name(store.getModelId(r)) + ","
+                            + store.getQuantity(r) + "," + Money.format(cents) + ","
+                            + store.methods().name(store.getMethodId(r)) + "," + store.employees().name(store.getEmployeeId(r)) + ","
+                            + store.outlets().name(store.getOutletId(r)) + "," + store.getTransactionId(r));
+                }
+                if (pw.checkError()) throw new IOException("Error writing " + f);
+            }
+            return n;
+        }
+        try (DataOutputStream out = createBinary(f, SALES_MAGIC)) {
+            for (int r = 0; r < n; r++) {
+                out.writeInt(store.getDay(r));
+                out.writeShort(store.getMinute(r));
+                out.writeInt(store.getQuantity(r));
+                out.writeLong(store.getCents(r));
+                out.writeLong(store.getTransactionId(r));
+                out.writeUTF(store.customers().name(store.getCustomerId(r)));
+                out.writeUTF(store.models().name(store.getModelId(r)));
+                out.writeUTF(store.methods().name(store.getMethodId(r)));
+                out.writeUTF(store.employees().name(store.getEmployeeId(r)));
+                out.writeUTF(store.outlets().name(store.getOutletId(r)));
+            }
+        }
+        return n;
+    }
+
+    // ================= STOCK =================
+    // Sets the quantity of each model / outlet listed; models and outlets must already exist in model.csv
+    public Result importStock(File f, StockStore store, String employee) throws IOException {
+        Sink<int[]> sink = cells -> {
+            for (int[] c : cells) store.setQuantity(c[0], c[1], c[2], employee);
+        };
+        Result result;
+        if (isCsv(f)) {
+            result = importCsv(f, line -> {
+                String[] p = split(line, 3);
+                if (p[0].equalsIgnoreCase("model")) return null; // header
+                if (p.length < 3) throw new IllegalArgumentException("expected 3 columns");
+                return stockCell(store, p[0], p[1], Integer.parseInt(p[2]));
+            }, sink);
+        } else {
+            result = new Result();
+            try (DataInputStream in = openBinary(f, STOCK_MAGIC)) {
+                List<int[]> batch = new ArrayList<>(CHUNK);
+                while (true) {
+                    String model;
+                    try {
+                        model = in.readUTF();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    String outlet = in.readUTF();
+                    int qty = in.readInt();
+                    try {
+                        batch.add(stockCell(store, model, outlet, qty));
+                    } catch (IllegalArgumentException e) {
+                        reject(result, "record " + (result.imported + result.rejected + 1), e.getMessage());
+                        continue;
+                    }
+                    if (batch.size() == CHUNK) flush(batch, sink, result);
+                }
+                flush(batch, sink, result);
+            }
+        }
+        store.compact();
+        return result;
+    }
+
+    private int[] stockCell(StockStore store, String model, String outlet, int qty) {
+        int row = store.findModel(model);
+        if (row == -1) throw new IllegalArgumentException("unknown model " + model);
+        int col = store.findOutlet(outlet);
+        if (col == -1 || (!outletMap.isEmpty() && !outletMap.containsKey(outlet))) {
+            throw new IllegalArgumentException("unknown outlet " + outlet);
+        }
+        if (qty < 0) throw new IllegalArgumentException("negative quantity");
+        return new int[] { row, col, qty };
+    }
+
+    public long exportStock(File f, StockStore store) throws IOException {
+        long n = 0;
+        if (isCsv(f)) {
+            try (PrintWriter pw = new PrintWriter(new BufferedWriter(new FileWriter(f), 1 << 16))) {
+                pw.println("Model,Outlet,Quantity");
+                for (int r = 0; r < store.getModelCount(); r++) {
+                    for (int c = 0; c < store.getOutletCount(); c++, n++) {
+                        pw.println(store.getModel(r) + "," + store.getOutlet(c) + "," + store.getQuantity(r, c));
+                    }
+                }
+                if (pw.checkError()) throw new IOException("Error writing " + f);
+            }
+            return n;
+        }
+        try (DataOutputStream out = createBinary(f, STOCK_MAGIC)) {
+            for (int r = 0; r < store.getModelCount(); r++) {
+                for (int c = 0; c < store.getOutletCount(); c++, n++) {
+                    out.writeUTF(store.getModel(r));
+                    out.writeUTF(store.getOutlet(c));
+                    out.writeInt(store.getQuantity(r, c));
+                }
+            }
+        }
+        return n;
+    }
+
+    // ================= ATTENDANCE =================
+    public Result importAttendance(File f, AttendanceLog log) throws IOException {
+        Sink<Attendance> sink = log::appendAll;
+        if (isCsv(f)) {
+            return importCsv(f, line -> {
+                String[] p = split(line, 5);
+                if (p[0].equalsIgnoreCase("employeeid")) return null; // header
+                if (p.length < 5) throw new IllegalArgumentException("expected 5 columns");
+                return shift(p[0], LocalDate.parse(p[1]), LocalTime.parse(p[2]),
+                        p[3].isEmpty() ? null : LocalTime.parse(p[3]), p[4]);
+            }, sink);
+        }
+        Result result = new Result();
+        try (DataInputStream in = openBinary(f, ATTENDANCE_MAGIC)) {
+            List<Attendance> batch = new ArrayList<>(CHUNK);
+            while (true) {
+                String id;
+                try {
+                    id = in.readUTF();
+                } catch (EOFException e) {
+                    break;
+                }
+                LocalDate date = LocalDate.ofEpochDay(in.readLong());
+                LocalTime clockIn = LocalTime.ofNanoOfDay(in.readLong());
+                long out = in.readLong();
+                String outlet = in.readUTF();
+                try {
+                    batch.add(shift(id, date, clockIn, out < 0 ? null : LocalTime.ofNanoOfDay(out), outlet));
+                } catch (IllegalArgumentException e) {
+                    reject(result, "record " + (result.imported + result.rejected + 1), e.getMessage());
+                    continue;
+                }
+                if (batch.size() == CHUNK) flush(batch, sink, result);
+            }
+            flush(batch, sink, result);
+        }
+        return result;
+    }
+
+    // Outlet is written "C60 (Name)"; the code in front must be a known outlet
+    private Attendance shift(String id, LocalDate date, LocalTime in, LocalTime out, String outlet) {
+        String code = outlet.split(" ")[0];
+        if (!outletMap.containsKey(code)) throw new IllegalArgumentException("unknown outlet " + code);
+        return new Attendance(id, date, in, out, outlet);
+    }
+
+    // One row per shift (the last copy of each), month by month
+    public long exportAttendance(File f, AttendanceLog log) throws IOException {
+        long n = 0;
+        boolean csv = isCsv(f);
+        try (PrintWriter pw = csv ? new PrintWriter(new BufferedWriter(new FileWriter(f), 1 << 16)) : null;
+             DataOutputStream out = csv ? null : createBinary(f, ATTENDANCE_MAGIC)) {
+            if (csv) pw.println("EmployeeId,Date,ClockIn,ClockOut,Outlet");
+            for (YearMonth month : log.months()) {
+                Map<String, Attendance> shifts = new LinkedHashMap<>();
+                log.read(month, a -> shifts.put(a.getEmployeeId() + "," + a.getDate() + "," + a.getClockIn(), a));
+                for (Attendance a : shifts.values()) {
+                    if (csv) {
+                        pw.println(a.toCSV());
+                    } else {
+                        out.writeUTF(a.getEmployeeId());
+                        out.writeLong(a.getDate().toEpochDay());
+                        out.writeLong(a.getClockIn().toNanoOfDay());
+                        out.writeLong(a.getClockOut() == null ? -1 : a.getClockOut().toNanoOfDay());
+                        out.writeUTF(a.getOutlet());
+                    }
+                    n++;
+                }
+            }
+            if (csv && pw.checkError()) throw new IOException("Error writing " + f);
+        }
+        return n;
+    }
+
+    // ================= PIPELINE =================
+    // Reads CHUNK lines at a time, parses chunks on the pool and saves them in file order;
+    // at most two chunks per thread are waiting, so memory stays bounded
+    private <T> Result importCsv(File f, Parser<T> parser, Sink<T> sink) throws IOException {
+        Result result = new Result();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Deque<Future<Chunk<T>>> inFlight = new ArrayDeque<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(f), 1 << 20)) {
+            long lineNo = 0;
+            while (true) {
+                List<String> lines = new ArrayList<>(CHUNK);
+                long firstLine = lineNo + 1;
+                String line;
+                while (lines.size() < CHUNK && (line = br.readLine()) != null) {
+                    lines.add(line);
+                    lineNo++;
+                }
+                if (lines.isEmpty()) break;
+                inFlight.add(pool.submit(() -> parseChunk(lines, firstLine, parser)));
+                if (inFlight.size() >= threads * 2) save(inFlight.poll(), sink, result);
+            }
+            while (!inFlight.isEmpty()) save(inFlight.poll(), sink, result);
+        } finally {
+            pool.shutdownNow();
+        }
+        return result;
+    }
+
+    private static <T> Chunk<T> parseChunk(List<String> lines, long firstLine, Parser<T> parser) {
+        Chunk<T> chunk = new Chunk<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.trim().isEmpty()) continue;
+            try {
+                T row = parser.parse(line);
+                if (row != null) chunk.rows.add(row);
+            } catch (RuntimeException e) {
+                chunk.rejected++;
+                if (chunk.errors.size() < MAX_ERRORS) chunk.errors.add("line " + (firstLine + i) + ": " + e.getMessage());
+            }
+        }
+        return chunk;
+    }
+
+    private static <T> void save(Future<Chunk<T>> next, Sink<T> sink, Result result) throws IOException {
+        Chunk<T> chunk;
+        try {
+            chunk = next.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Import failed: " + e.getCause(), e.getCause());
+        }
+        if (!chunk.rows.isEmpty()) sink.accept(chunk.rows);
+        result.imported += chunk.rows.size();
+        result.rejected += chunk.rejected;
+        for (String e : chunk.errors) {
+            if (result.errors.size() < MAX_ERRORS) result.errors.add(e);
+        }
+    }
+
+    private static <T> void flush(List<T> batch, Sink<T> sink, Result result) throws IOException {
+        if (batch.isEmpty()) return;
+        sink.accept(batch);
+        result.imported += batch.size();
+        batch.clear();
+    }
+
+    private static void reject(Result result, String where, String why) {
+        result.rejected++;
+        if (result.errors.size() < MAX_ERRORS) result.errors.add(where + ": " + why);
+    }
+
+    // ================= HELPERS =================
+    // Splits on commas into at most max trimmed fields (no regex)
+    private static String[] split(String line, int max) {
+        List<String> fields = new ArrayList<>(max);
+        int start = 0;
+        while (fields.size() < max - 1) {
+            int comma = line.indexOf(',', start);
+            if (comma < 0) break;
+            fields.add(line.substring(start, comma).trim());
+            start = comma + 1;
+        }
+        fields.add(line.substring(start).trim());
+        return fields.toArray(new String[0]);
+    }
+
+    private static DataInputStream openBinary(File f, int magic) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f), 1 << 16));
+        if (in.readInt() != magic) {
+            in.close();
+            throw new IOException("Not the right kind of export file: " + f);
+        }
+        return in;
+    }
+
+    private static DataOutputStream createBinary(File f, int magic) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f), 1 << 16));
+        out.writeInt(magic);
+        return out;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+// One file per month: attendance/attendance-YYYY-MM.csv, one Attendance.toCSV() line per event
+public class CsvAttendanceRepository implements AttendanceRepository {
+    private final File dir;
+
+    public CsvAttendanceRepository(File dir) {
+        this.dir = dir;
+    }
+
+    @Override
+    public void append(Attendance a) throws IOException {
+        dir.mkdirs();
+        try (PrintWriter pw = new PrintWriter(new FileWriter(file(YearMonth.from(a.getDate())), true))) {
+            pw.println(a.toCSV());
+            if (pw.checkError()) throw new IOException("Error writing attendance");
+        }
+    }
+
+    // One writer per month touched
+    @Override
+    public void appendAll(List<Attendance> events) throws IOException {
+        Map<YearMonth, List<Attendance>> byMonth = new TreeMap<>();
+        for (Attendance a : events) {
+            byMonth.computeIfAbsent(YearMonth.from(a.getDate()), m -> new ArrayList<>()).add(a);
+        }
+        dir.mkdirs();
+        for (Map.Entry<YearMonth, List<Attendance>> m : byMonth.entrySet()) {
+            try (PrintWriter pw = new PrintWriter(new BufferedWriter(new FileWriter(file(m.getKey()), true)))) {
+                for (Attendance a : m.getValue()) pw.println(a.toCSV());
+                if (pw.checkError()) throw new IOException("Error writing attendance");
+            }
+        }
+    }
+
+    @Override
+    public List<YearMonth> months() {
+        List<YearMonth> months = new ArrayList<>();
+        File[] files = dir.listFiles((d, name) -> name.startsWith("attendance-") && name.endsWith(".csv"));
+        if (files == null) return months;
+        for (File f : files) {
+            String name = f.getName();
+            months.add(YearMonth.parse(name.substring("attendance-".length(), name.length() - ".csv".length())));
+        }
+        Collections.sort(months);
+        return months;
+    }
+
+    @Override
+    public void read(YearMonth month, Consumer<Attendance> handler) throws IOException {
+        CsvReader.read(file(month), row -> {
+            Attendance a = parse(row);
+            if (a != null) handler.accept(a);
+        });
+    }
+
+    private File file(YearMonth month) {
+        return new File(dir, "attendance-" + month + ".csv");
+    }
+
+    // employeeId,date,clockIn,clockOut,outlet; null for a damaged line
+    static Attendance parse(CsvReader row) {
+        try {
+            LocalTime out = row.isEmpty(3) ? null : LocalTime.parse(row.getString(3));
+            return new Attendance(row.getString(0), LocalDate.parse(row.getString(1)),
+                    LocalTime.parse(row.getString(2)), out, row.getString(4));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
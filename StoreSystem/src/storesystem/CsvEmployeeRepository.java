@@ -0,0 +1,53 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+// employee.csv: id,name,role,password per line; new employees are appended
+public class CsvEmployeeRepository implements EmployeeRepository {
+    private final File file;
+
+    public CsvEmployeeRepository(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public void load(Reader r) throws IOException {
+        CsvReader.read(file, row -> r.employee(row.getString(0), row.getString(1), row.getString(2), row.getString(3)));
+    }
+
+    @Override
+    public void add(Employee e) throws IOException {
+        try (PrintWriter pw = new PrintWriter(new FileWriter(file, true))) {
+            pw.println(toCSV(e));
+            if (pw.checkError()) throw new IOException("Error writing " + file);
+        }
+    }
+
+    @Override
+    public void saveAll(List<Employee> employees) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (PrintWriter pw = new PrintWriter(new FileWriter(tmp))) {
+            for (Employee e : employees) pw.println(toCSV(e));
+            if (pw.checkError()) throw new IOException("Error writing " + tmp);
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String toCSV(Employee e) {
+        return e.getId() + "," + e.getName() + "," + e.getRole() + "," + e.getPassword();
+    }
+}
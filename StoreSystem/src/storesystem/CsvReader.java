@@ -0,0 +1,180 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Reads a comma separated file through one reused byte buffer. The file is read, not
+// memory mapped, so nothing keeps it open afterwards (Windows will not replace a mapped file).
+// Each line is split in place (only field offsets are stored) and handed to the
+// handler, which reads the fields it needs; numbers are parsed from the bytes
+// without building a String first. Fields are trimmed, quotes are not supported.
+public class CsvReader {
+    private static final int WINDOW = 1 << 20; // bytes read at a time
+
+    // Called once per non-blank line; the reader is only valid during the call
+    public interface RowHandler {
+        void row(CsvReader row) throws IOException;
+    }
+
+    private ByteBuffer buf;
+    private int[] start = new int[16], end = new int[16];
+    private int fields = 0;
+    private long line = 0;
+    private byte[] scratch = new byte[64];
+
+    private CsvReader() {
+    }
+
+    // Streams every line of file to handler; a missing file reads as empty
+    public static void read(File file, RowHandler handler) throws IOException {
+        if (!file.exists()) return;
+        new CsvReader().scan(file, handler);
+    }
+
+    private void scan(File file, RowHandler handler) throws IOException {
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = ch.size();
+            long pos = 0;
+            int window = WINDOW;
+            while (pos < size) {
+                int length = (int) Math.min(size - pos, window);
+                if (buf == null || buf.capacity() < length) buf = ByteBuffer.allocate(length);
+                buf.clear().limit(length);
+                while (buf.hasRemaining()) {
+                    if (ch.read(buf, pos + buf.position()) < 0) throw new IOException("File shrank while reading " + file);
+                }
+                boolean last = pos + length == size;
+                int lineStart = 0;
+                for (int i = 0; i < length; i++) {
+                    if (buf.get(i) == '\n') {
+                        row(handler, lineStart, i);
+                        lineStart = i + 1;
+                    }
+                }
+                if (last) {
+                    if (lineStart < length) row(handler, lineStart, length);
+                    break;
+                }
+                if (lineStart == 0) {
+                    window *= 2; // one line longer than the window, read more
+                    continue;
+                }
+                pos += lineStart; // next window starts at the cut line
+            }
+        } finally {
+            buf = null;
+        }
+    }
+
+    private void row(RowHandler handler, int from, int to) throws IOException {
+        line++;
+        if (to > from && buf.get(to - 1) == '\r') to--;
+        fields = 0;
+        int s = from;
+        for (int i = from; i <= to; i++) {
+            if (i == to || buf.get(i) == ',') {
+                addField(s, i);
+                s = i + 1;
+            }
+        }
+        if (fields == 1 && start[0] == end[0]) return; // blank line
+        handler.row(this);
+    }
+
+    private void addField(int from, int to) {
+        while (from < to && isSpace(buf.get(from))) from++;
+        while (to > from && isSpace(buf.get(to - 1))) to--;
+        if (fields == start.length) {
+            start = Arrays.copyOf(start, fields * 2);
+            end = Arrays.copyOf(end, fields * 2);
+        }
+        start[fields] = from;
+        end[fields] = to;
+        fields++;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    // ================= FIELDS =================
+    public int size() { return fields; }
+    public long lineNumber() { return line; }
+
+    public boolean isEmpty(int i) {
+        return i >= fields || start[i] == end[i];
+    }
+
+    public String getString(int i) {
+        if (i >= fields) return "";
+        int n = end[i] - start[i];
+        if (scratch.length < n) scratch = new byte[Math.max(n, scratch.length * 2)];
+        buf.get(start[i], scratch, 0, n);
+        return new String(scratch, 0, n, StandardCharsets.UTF_8);
+    }
+
+    // True if the field is the same text as s ignoring case (ASCII letters only), without building a String
+    public boolean matches(int i, String s) {
+        if (i >= fields || end[i] - start[i] != s.length()) return false;
+        for (int p = start[i], k = 0; p < end[i]; p++, k++) {
+            int b = buf.get(p), c = s.charAt(k);
+            if (b == c) continue;
+            if (b < 0 || c > 127 || (b | 0x20) != (c | 0x20) || (b | 0x20) < 'a' || (b | 0x20) > 'z') return false;
+        }
+        return true;
+    }
+
+    // Field as text up to the first n bytes, e.g. the outlet code at the front of an employee id
+    public String getPrefix(int i, int n) {
+        if (i >= fields) return "";
+        int len = Math.min(n, end[i] - start[i]);
+        if (scratch.length < len) scratch = new byte[len];
+        buf.get(start[i], scratch, 0, len);
+        return new String(scratch, 0, len, StandardCharsets.UTF_8);
+    }
+
+    public int getInt(int i) {
+        if (isEmpty(i)) throw new NumberFormatException("Empty field " + i + " on line " + line);
+        int p = start[i], e = end[i];
+        boolean negative = buf.get(p) == '-';
+        if (negative || buf.get(p) == '+') p++;
+        if (p == e) throw badNumber(i);
+        long v = 0;
+        for (; p < e; p++) {
+            int d = buf.get(p) - '0';
+            if (d < 0 || d > 9) throw badNumber(i);
+            v = v * 10 + d;
+            if (v > (long) Integer.MAX_VALUE + 1) throw badNumber(i);
+        }
+        v = negative ? -v : v;
+        if (v > Integer.MAX_VALUE) throw badNumber(i);
+        return (int) v;
+    }
+
+    // An amount such as "459.90" as cents, see Money.parse
+    public long getCents(int i) {
+        if (isEmpty(i)) throw new NumberFormatException("Empty field " + i + " on line " + line);
+        try {
+            return Money.parse(buf, start[i], end[i]);
+        } catch (NumberFormatException e) {
+            throw badNumber(i);
+        }
+    }
+
+    private NumberFormatException badNumber(int i) {
+        return new NumberFormatException("For input string: \"" + getString(i) + "\" on line " + line);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+// model.csv: Model,Price,<outlet codes...> then one line per model; always rewritten whole
+public class CsvStockRepository implements StockRepository {
+    private final File file;
+
+    public CsvStockRepository(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public boolean load(Reader r) throws IOException {
+        if (!file.exists()) return false;
+        int[][] quantities = {null};
+        CsvReader.read(file, row -> {
+            if (quantities[0] == null) {
+                String[] outlets = new String[Math.max(0, row.size() - 2)];
+                for (int i = 0; i < outlets.length; i++) outlets[i] = row.getString(i + 2);
+                r.header(row.getString(0), row.size() > 1 ? row.getString(1) : "Price", outlets);
+                quantities[0] = new int[outlets.length];
+                return;
+            }
+            int[] q = quantities[0];
+            for (int c = 0; c < q.length; c++) q[c] = row.isEmpty(c + 2) ? 0 : row.getInt(c + 2);
+            r.model(row.getString(0), row.getString(1), row.getCents(1), q);
+        });
+        return true;
+    }
+
+    // A new file beside model.csv, forced to disk, then moved over it
+    @Override
+    public void save(String[] header, String[] outlets, String[] models, String[] priceText, int[] quantities,
+                     boolean[] changed) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        FileOutputStream out = new FileOutputStream(tmp);
+        try (PrintWriter pw = new PrintWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)))) {
+            StringBuilder line = new StringBuilder(String.join(",", header));
+            for (String o : outlets) line.append(',').append(o);
+            pw.println(line);
+
+            for (int r = 0; r < models.length; r++) {
+                line.setLength(0);
+                line.append(models[r]).append(',').append(priceText[r]);
+                for (int c = 0; c < outlets.length; c++) {
+                    line.append(',').append(quantities[r * outlets.length + c]);
+                }
+                pw.println(line);
+            }
+            pw.flush();
+            if (pw.checkError()) throw new IOException("Error writing " + tmp);
+            out.getFD().sync(); // on disk before it replaces model.csv
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
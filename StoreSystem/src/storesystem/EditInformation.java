@@ -8,47 +8,43 @@ package storesystem;
  *
  * @author Nur Hasna Nadirah
  */
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Scanner;
 
 public class EditInformation {
-    public static void editStock(List<Stock> stocks, Scanner sc) {
+    public static void editStock(List<Stock> stocks, StockStore stockStore, Scanner sc, String employee) {
         System.out.println("\n=== Edit Stock Information ===");
         System.out.print("Enter Model Name: ");
         String modelName = sc.nextLine();
         
-        boolean found = false;
+        Stock s = Stock.find(stocks, stockStore, modelName);
+        if(s == null) {
+            System.out.println("Model name not found");
+            return;
+        }
+        System.out.println("Current Stock: " + s.getQuantity());
+        System.out.print("Enter New Stock Value: ");
         
-        for(Stock s : stocks) {
-            if(s.getModel().equalsIgnoreCase(modelName)) {
-                found = true;
-                System.out.println("Current Stock: " + s.getQuantity());
-                System.out.print("Enter New Stock Value: ");
-                
-                try {
-                    int newStock = Integer.parseInt(sc.nextLine());
-                    if(newStock < 0) {
-                        System.out.println("New stock value cannot be negative");
-                        return;
-                    }
-                    s.setQuantity(newStock);
-                    
-                    System.out.println("Stock information updated successfully.");
-                    
-                } catch (NumberFormatException e) {
-                    System.out.println("Invalid Input");
-                    return;
-                }
-                break;
+        try {
+            int newStock = Integer.parseInt(sc.nextLine());
+            if(newStock < 0) {
+                System.out.println("New stock value cannot be negative");
+                return;
             }
-        }
-        if(!found) {
-            System.out.println("Model name not found");
+            s.setQuantity(newStock, employee);
+            
+            System.out.println("Stock information updated successfully.");
+            
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid Input");
+        } catch (IOException e) {
+            System.out.println("Error saving stock.");
         }
     }
     
-    public static void EditSales(List<SaleRecord> sales, Scanner sc) {
+    public static void EditSales(SalesStore sales, Scanner sc) {
         System.out.println("\n=== Edit Sale Information ===");
         System.out.print("Enter Transaction Date(YYYY-MM-DD): ");
         LocalDate date = LocalDate.parse(sc.nextLine());
@@ -56,9 +52,11 @@ public class EditInformation {
         String custName = sc.nextLine();
         
         SaleRecord foundRecord = null;
-        for(SaleRecord record : sales) {
-            if(record.date.equals(date.toString()) && record.customerName.equalsIgnoreCase(custName)){
-                foundRecord = record;
+        int day = (int) date.toEpochDay();
+        int customer = sales.customers().find(custName); // -1 if never a customer, nothing matches
+        for(int i = 0; i < sales.size() && customer != -1; i++) {
+            if(sales.getDay(i) == day && sales.getCustomerId(i) == customer){
+                foundRecord = sales.get(i); // a copy, only saved back on confirm
                 break;
             }
         }
@@ -70,7 +68,7 @@ public class EditInformation {
         System.out.println("\nSales Record Found: ");
         System.out.println();
         System.out.println("Model: " + foundRecord.modelName + "Quantity: " + foundRecord.quantity);
-        System.out.println("Total: RM" + foundRecord.total);
+        System.out.println("Total: RM" + Money.format(foundRecord.cents));
         System.out.println("Transaction Method: " + foundRecord.method);
         
         System.out.println("\nSelect number to edit:");
@@ -90,12 +88,26 @@ public class EditInformation {
             }
             case 3 -> {
                 System.out.print("Enter New Quantity: ");
-                foundRecord.quantity = sc.nextInt();
+                try {
+                    int qty = Integer.parseInt(sc.nextLine().trim());
+                    if (qty < 0) {
+                        System.out.println("Quantity cannot be negative");
+                        return;
+                    }
+                    foundRecord.quantity = qty;
+                } catch (NumberFormatException e) {
+                    System.out.println("Invalid Input");
+                    return;
+                }
             }
             case 4 -> {
                 System.out.print("Enter New Total: ");
-                foundRecord.total = sc.nextInt();
-                sc.nextLine();
+                try {
+                    foundRecord.cents = Money.parse(sc.nextLine());
+                } catch (NumberFormatException e) {
+                    System.out.println("Invalid Input");
+                    return;
+                }
             }
             case 5 -> {
                 System.out.print("Enter New Transaction Method: ");
@@ -110,6 +122,12 @@ public class EditInformation {
         System.out.print("Confirm Update? (Y/N): ");
         String ans = sc.nextLine();
         if(ans.equalsIgnoreCase("Y")) {
+            try {
+                sales.update(foundRecord);
+            } catch (IOException e) {
+                System.out.println("Error saving sales record.");
+                return;
+            }
             System.out.println("Sales information updated successfully.");
         } else {
             System.out.println("Update cancelled");
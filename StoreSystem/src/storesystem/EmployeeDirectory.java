@@ -0,0 +1,175 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+// All employees from employee.csv (id,name,role,password) or another EmployeeRepository,
+// looked up by id (any case) or by outlet code (first 3 letters of the id). Passwords are
+// kept as salted PBKDF2 hashes; old plain text ones are converted on load. New employees are appended.
+public class EmployeeDirectory {
+    private static final String SCHEME = "pbkdf2";
+    private static final int ITERATIONS = 20000;
+    private static final int SALT_BYTES = 16, HASH_BITS = 256;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final EmployeeRepository repository;
+    private final Map<String, Employee> byId = new HashMap<>();              // lowercase id -> employee
+    private final Map<String, List<Employee>> byOutlet = new HashMap<>();    // lowercase outlet code -> employees
+    private final List<Employee> all = new ArrayList<>();
+    // Fast check for passwords already verified once: lowercase id -> SHA-256(salt + password)
+    private final Map<String, byte[]> verified = new ConcurrentHashMap<>();
+
+    public EmployeeDirectory(File file) {
+        this(new CsvEmployeeRepository(file));
+    }
+
+    public EmployeeDirectory(EmployeeRepository repository) {
+        this.repository = repository;
+    }
+
+    // ================= LOAD =================
+    // outletNames (code -> name) builds the "C60 (Name)" outlet label of each employee
+    public synchronized void load(Map<String, String> outletNames) throws IOException {
+        byId.clear();
+        byOutlet.clear();
+        all.clear();
+        verified.clear();
+        boolean[] plain = {false};
+        repository.load((id, name, role, password) -> {
+            if (!password.startsWith(SCHEME + "$")) plain[0] = true;
+            String code = id.substring(0, Math.min(3, id.length()));
+            add(new Employee(id, name, role, password, code + " (" + outletNames.get(code) + ")"));
+        });
+        if (plain[0]) {
+            hashPlainPasswords();
+        }
+    }
+
+    // Saves every employee once with each plain text password replaced by its hash
+    private void hashPlainPasswords() throws IOException {
+        Employee[] hashed = all.toArray(new Employee[0]);
+        IntStream.range(0, hashed.length).parallel().forEach(i -> {
+            Employee e = hashed[i];
+            if (e.getPassword().startsWith(SCHEME + "$")) return;
+            hashed[i] = new Employee(e.getId(), e.getName(), e.getRole(), hash(e.getPassword()), e.getOutlet());
+        });
+        repository.saveAll(Arrays.asList(hashed));
+
+        byId.clear();
+        byOutlet.clear();
+        all.clear();
+        for (Employee e : hashed) add(e);
+    }
+
+    private void add(Employee e) {
+        byId.put(e.getId().toLowerCase(), e);
+        byOutlet.computeIfAbsent(outletCode(e.getId()), c -> new ArrayList<>()).add(e);
+        all.add(e);
+    }
+
+    // ================= LOOKUP =================
+    public synchronized Employee find(String id) {
+        return byId.get(id.toLowerCase());
+    }
+
+    public synchronized boolean exists(String id) {
+        return byId.containsKey(id.toLowerCase());
+    }
+
+    public synchronized List<Employee> atOutlet(String code) {
+        return new ArrayList<>(byOutlet.getOrDefault(code.toLowerCase(), Collections.emptyList()));
+    }
+
+    public synchronized int size() {
+        return all.size();
+    }
+
+    // The employee if id and password match, otherwise null
+    public Employee login(String id, String password) {
+        Employee e = find(id);
+        if (e == null) return null;
+        String key = e.getId().toLowerCase();
+        String[] stored = e.getPassword().split("\\$");
+        if (stored.length != 4) return null;
+        byte[] salt = Base64.getDecoder().decode(stored[2]);
+
+        byte[] quick = verified.get(key);
+        if (quick != null) {
+            return MessageDigest.isEqual(quick, digest(salt, password)) ? e : null;
+        }
+        byte[] expected = Base64.getDecoder().decode(stored[3]);
+        byte[] actual = pbkdf2(password, salt, Integer.parseInt(stored[1]));
+        if (!MessageDigest.isEqual(expected, actual)) return null;
+        verified.put(key, digest(salt, password));
+        return e;
+    }
+
+    // ================= REGISTER =================
+    // Appends a new employee; false if the id is already taken
+    public boolean register(String id, String name, String role, String password, String outlet) throws IOException {
+        String hashed = hash(password); // slow on purpose, done outside the lock
+        synchronized (this) {
+            if (exists(id)) return false;
+            Employee e = new Employee(id, name, role, hashed, outlet);
+            repository.add(e);
+            add(e);
+            return true;
+        }
+    }
+
+    // ================= HELPERS =================
+    private static String outletCode(String id) {
+        return id.substring(0, Math.min(3, id.length())).toLowerCase();
+    }
+
+    // pbkdf2$iterations$salt$hash, salt and hash in Base64
+    private static String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        Base64.Encoder b64 = Base64.getEncoder();
+        return SCHEME + "$" + ITERATIONS + "$" + b64.encodeToString(salt) + "$"
+                + b64.encodeToString(pbkdf2(password, salt, ITERATIONS));
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        try {
+            PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("PBKDF2 not available", ex);
+        }
+    }
+
+    private static byte[] digest(byte[] salt, String password) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update(salt);
+            return md.digest(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.IOException;
+import java.util.List;
+
+// Where EmployeeDirectory keeps its employees: employee.csv (CsvEmployeeRepository) or the
+// key-value store (KvEmployeeRepository), see StorageBackend
+public interface EmployeeRepository {
+    // One saved employee; the outlet label is worked out by the directory
+    interface Reader {
+        void employee(String id, String name, String role, String password);
+    }
+
+    void load(Reader r) throws IOException;
+
+    // Saves one new employee
+    void add(Employee e) throws IOException;
+
+    // Replaces every saved employee, e.g. once passwords have been hashed
+    void saveAll(List<Employee> employees) throws IOException;
+}
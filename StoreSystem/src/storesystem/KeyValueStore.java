@@ -0,0 +1,329 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+
+// Log-structured key-value file. Every write (a batch of puts and deletes) is appended as one
+// checksummed frame; an in-memory sorted index maps each live key to where its newest value
+// sits in the file, so a point read is one positioned read and a range scan walks the index in
+// key order. Overwritten and deleted values stay in the file until compact() copies the live
+// entries, in key order, to a new file; that happens on its own once they outweigh the live ones.
+// A torn frame at the end (crash mid-write) is cut off when the file is opened, so a batch is
+// either all there or not at all. The file is read through one memory map, so it holds up to 2 GB.
+//   frame = length of entries (int) + CRC32C of entries (int) + entries
+//   entry = type (byte) + key length (short) + value length (int) + key + value
+public class KeyValueStore {
+    private static final int MAGIC = 0x4B565332; // "KVS2"
+    private static final int HEADER_SIZE = 8;
+    private static final int FRAME_HEADER = 4 + 4;
+    private static final int ENTRY_HEADER = 1 + 2 + 4;
+    private static final byte PUT = 1, DELETE = 2;
+    private static final int MAX_VALUE = (1 << 24) - 1;
+    private static final long COMPACT_MIN_GARBAGE = 4 << 20;
+
+    private final File file;
+    private FileChannel channel;
+    private MappedByteBuffer map; // file bytes 0..map.limit(), mapped again once the file has grown
+    // key -> value position << 24 | value length
+    private final TreeMap<String, Long> index = new TreeMap<>();
+    private long end = HEADER_SIZE;
+    private long live = 0, garbage = 0; // entry bytes still read / superseded
+    private final CRC32C crc = new CRC32C();
+
+    public KeyValueStore(File file) {
+        this.file = file;
+    }
+
+    // Receives the values of a scan; value is a read-only view, valid until the visitor returns
+    public interface Visitor {
+        void visit(String key, ByteBuffer value) throws IOException;
+    }
+
+    // ================= OPEN =================
+    public synchronized void open() throws IOException {
+        if (channel != null) return;
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        index.clear();
+        live = garbage = 0;
+        map = null;
+        if (channel.size() < HEADER_SIZE) {
+            ByteBuffer head = ByteBuffer.allocate(HEADER_SIZE);
+            head.putInt(MAGIC).putInt(0).flip();
+            channel.write(head, 0);
+            channel.truncate(HEADER_SIZE);
+            channel.force(true);
+            end = HEADER_SIZE;
+            return;
+        }
+        end = channel.size();
+        if (end > Integer.MAX_VALUE) {
+            close();
+            throw new IOException("Key-value file over 2 GB: " + file);
+        }
+        ByteBuffer buf = view();
+        if (buf.getInt(0) != MAGIC) {
+            close();
+            throw new IOException("Unrecognised key-value file " + file);
+        }
+        int pos = HEADER_SIZE;
+        while (pos + FRAME_HEADER <= end) {
+            int size = buf.getInt(pos), sum = buf.getInt(pos + 4);
+            if (size < ENTRY_HEADER || pos + FRAME_HEADER + (long) size > end) break; // torn tail
+            crc.reset();
+            crc.update(buf.slice(pos + FRAME_HEADER, size));
+            if ((int) crc.getValue() != sum) break;
+            int at = pos + FRAME_HEADER, stop = at + size;
+            while (at < stop) {
+                byte type = buf.get(at);
+                int keyLength = buf.getShort(at + 1) & 0xFFFF, valueLength = buf.getInt(at + 3);
+                byte[] key = new byte[keyLength];
+                buf.get(at + ENTRY_HEADER, key);
+                apply(new String(key, StandardCharsets.UTF_8), type, at + ENTRY_HEADER + keyLength, valueLength, keyLength);
+                at += ENTRY_HEADER + keyLength + valueLength;
+            }
+            pos = stop;
+        }
+        if (pos < end) {
+            channel.truncate(pos);
+            end = pos;
+            map = null;
+        }
+    }
+
+    // Index update for one entry
+    private void apply(String key, byte type, long valuePos, int valueLength, int keyLength) {
+        Long old = type == PUT ? index.put(key, valuePos << 24 | valueLength) : index.remove(key);
+        if (old != null) {
+            int oldSize = ENTRY_HEADER + keyLength + length(old);
+            live -= oldSize;
+            garbage += oldSize;
+        }
+        int size = ENTRY_HEADER + keyLength + valueLength;
+        if (type == PUT) live += size;
+        else garbage += size;
+    }
+
+    // ================= READ =================
+    // The value, or null if the key is not there
+    public synchronized byte[] get(String key) throws IOException {
+        Long at = index.get(key);
+        if (at == null) return null;
+        ByteBuffer buf = ByteBuffer.allocate(length(at));
+        long pos = position(at);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, pos + buf.position()) < 0) throw new IOException("Truncated " + file);
+        }
+        return buf.array();
+    }
+
+    public synchronized boolean contains(String key) {
+        return index.containsKey(key);
+    }
+
+    // Keys from (inclusive) to (exclusive), in order
+    public synchronized void scan(String from, String to, Visitor v) throws IOException {
+        Map<String, Long> range = index.subMap(from, true, to, false);
+        if (range.isEmpty()) return;
+        ByteBuffer buf = view();
+        for (Map.Entry<String, Long> e : range.entrySet()) {
+            long at = e.getValue();
+            v.visit(e.getKey(), buf.slice((int) position(at), length(at)).asReadOnlyBuffer());
+        }
+    }
+
+    // Every key that starts with prefix, in order
+    public void scanPrefix(String prefix, Visitor v) throws IOException {
+        scan(prefix, prefix + Character.MAX_VALUE, v);
+    }
+
+    // Keys from (inclusive) to (exclusive), in order
+    public synchronized List<String> keys(String from, String to) {
+        return new ArrayList<>(index.subMap(from, true, to, false).keySet());
+    }
+
+    // Smallest key in from..to (exclusive), or null
+    public synchronized String firstKey(String from, String to) {
+        String k = index.ceilingKey(from);
+        return k != null && k.compareTo(to) < 0 ? k : null;
+    }
+
+    // Greatest key in from..to (exclusive), or null
+    public synchronized String lastKey(String from, String to) {
+        String k = index.lowerKey(to);
+        return k != null && k.compareTo(from) >= 0 ? k : null;
+    }
+
+    public synchronized int size() { return index.size(); }
+    public synchronized long getFileBytes() { return end; }
+    public synchronized long getGarbageBytes() { return garbage; }
+
+    // ================= WRITE =================
+    public void put(String key, byte[] value) throws IOException {
+        write(new Batch().put(key, value));
+    }
+
+    public void delete(String key) throws IOException {
+        write(new Batch().delete(key));
+    }
+
+    // Appends every put and delete of the batch, in order, as one frame
+    public synchronized void write(Batch b) throws IOException {
+        if (b.keys.isEmpty()) return;
+        if (end + FRAME_HEADER + b.bytes > Integer.MAX_VALUE) {
+            compact();
+            if (end + FRAME_HEADER + b.bytes > Integer.MAX_VALUE) throw new IOException("Key-value file full (2 GB): " + file);
+        }
+        ByteBuffer buf = ByteBuffer.allocate(FRAME_HEADER + (int) b.bytes);
+        buf.putInt((int) b.bytes).putInt(0);
+        long start = end;
+        for (int i = 0; i < b.keys.size(); i++) {
+            byte[] key = b.keys.get(i), value = b.values.get(i);
+            buf.put(value == null ? DELETE : PUT).putShort((short) key.length).putInt(value == null ? 0 : value.length).put(key);
+            if (value != null) buf.put(value);
+        }
+        crc.reset();
+        crc.update(buf.array(), FRAME_HEADER, (int) b.bytes);
+        buf.putInt(4, (int) crc.getValue());
+        buf.flip();
+        long pos = start;
+        while (buf.hasRemaining()) pos += channel.write(buf, pos);
+        end = pos;
+        long at = start + FRAME_HEADER;
+        for (int i = 0; i < b.keys.size(); i++) {
+            byte[] key = b.keys.get(i), value = b.values.get(i);
+            int length = value == null ? 0 : value.length;
+            apply(b.names.get(i), value == null ? DELETE : PUT, at + ENTRY_HEADER + key.length, length, key.length);
+            at += ENTRY_HEADER + key.length + length;
+        }
+        if (garbage > COMPACT_MIN_GARBAGE && garbage > live) compact();
+    }
+
+    // Forces everything written so far to disk
+    public synchronized void sync() throws IOException {
+        channel.force(false);
+    }
+
+    // Puts and deletes written together by write()
+    public static class Batch {
+        private final List<String> names = new ArrayList<>();
+        private final List<byte[]> keys = new ArrayList<>();
+        private final List<byte[]> values = new ArrayList<>(); // null = delete
+        private long bytes = 0;
+
+        public Batch put(String key, byte[] value) {
+            if (value.length > MAX_VALUE) throw new IllegalArgumentException("Value over 16 MB for " + key);
+            return add(key, value);
+        }
+
+        public Batch delete(String key) {
+            return add(key, null);
+        }
+
+        private Batch add(String key, byte[] value) {
+            byte[] k = key.getBytes(StandardCharsets.UTF_8);
+            if (k.length > 0xFFFF) throw new IllegalArgumentException("Key too long: " + key);
+            bytes += ENTRY_HEADER + k.length + (value == null ? 0 : value.length);
+            if (bytes > Integer.MAX_VALUE - FRAME_HEADER) throw new IllegalArgumentException("Batch over 2 GB");
+            names.add(key);
+            keys.add(k);
+            values.add(value);
+            return this;
+        }
+
+        public int size() { return keys.size(); }
+    }
+
+    // ================= COMPACT =================
+    // Copies the live entries, in key order, to a new file that then replaces this one
+    public synchronized void compact() throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        TreeMap<String, Long> moved = new TreeMap<>();
+        ByteBuffer src = view();
+        long pos = HEADER_SIZE;
+        try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer head = ByteBuffer.allocate(HEADER_SIZE);
+            head.putInt(MAGIC).putInt(0).flip();
+            out.write(head);
+            ByteBuffer frame = ByteBuffer.allocate(1 << 20);
+            frame.position(FRAME_HEADER);
+            for (Map.Entry<String, Long> e : index.entrySet()) {
+                long at = e.getValue();
+                int length = length(at);
+                int keyLength = e.getKey().getBytes(StandardCharsets.UTF_8).length;
+                int entry = ENTRY_HEADER + keyLength + length;
+                if (frame.remaining() < entry && frame.position() > FRAME_HEADER) {
+                    pos += writeFrame(out, frame);
+                    frame.clear().position(FRAME_HEADER);
+                }
+                if (frame.remaining() < entry) frame = ByteBuffer.allocate(FRAME_HEADER + entry).position(FRAME_HEADER);
+                long entryPos = position(at) - keyLength - ENTRY_HEADER;
+                moved.put(e.getKey(), (pos + frame.position() + ENTRY_HEADER + keyLength) << 24 | length);
+                frame.put(src.slice((int) entryPos, entry)); // entry copied as it is
+            }
+            if (frame.position() > FRAME_HEADER) pos += writeFrame(out, frame);
+            out.force(true);
+        }
+        channel.close();
+        map = null;
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        index.clear();
+        index.putAll(moved);
+        end = pos;
+        garbage = 0;
+    }
+
+    // Checksums the entries in frame (after its header) and writes it; returns the bytes written
+    private int writeFrame(FileChannel out, ByteBuffer frame) throws IOException {
+        int size = frame.position() - FRAME_HEADER;
+        crc.reset();
+        crc.update(frame.array(), FRAME_HEADER, size);
+        frame.putInt(0, size).putInt(4, (int) crc.getValue());
+        frame.flip();
+        while (frame.hasRemaining()) out.write(frame);
+        return FRAME_HEADER + size;
+    }
+
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        map = null;
+    }
+
+    // ================= HELPERS =================
+    // The whole file, mapped once and mapped again only after it has grown
+    private ByteBuffer view() throws IOException {
+        if (map == null || map.limit() < end) {
+            map = channel.map(FileChannel.MapMode.READ_ONLY, 0, end);
+        }
+        return map;
+    }
+
+    private static long position(long at) { return at >>> 24; }
+    private static int length(long at) { return (int) (at & MAX_VALUE); }
+}
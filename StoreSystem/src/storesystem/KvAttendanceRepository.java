@@ -0,0 +1,97 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Clock events in the key-value store, attendance/YYYY-MM/<sequence> -> event, so one month is
+// one range scan in the order the events were saved.
+//   event = employee id, outlet (short length + UTF-8 each), epoch day (int),
+//           clock in, clock out (nano of day, long; -1 = still open)
+public class KvAttendanceRepository implements AttendanceRepository {
+    private static final String PREFIX = "attendance/";
+
+    private final KeyValueStore kv;
+    private final Map<YearMonth, Long> next = new HashMap<>(); // month -> next sequence number
+
+    public KvAttendanceRepository(KeyValueStore kv) {
+        this.kv = kv;
+    }
+
+    @Override
+    public synchronized void append(Attendance a) throws IOException {
+        kv.put(key(YearMonth.from(a.getDate())), encode(a));
+    }
+
+    @Override
+    public synchronized void appendAll(List<Attendance> events) throws IOException {
+        KeyValueStore.Batch b = new KeyValueStore.Batch();
+        for (Attendance a : events) b.put(key(YearMonth.from(a.getDate())), encode(a));
+        kv.write(b);
+    }
+
+    // One index lookup per month: from the first key of a month straight past its last
+    @Override
+    public List<YearMonth> months() {
+        List<YearMonth> months = new ArrayList<>();
+        String end = PREFIX + Character.MAX_VALUE;
+        for (String k = kv.firstKey(PREFIX, end); k != null; ) {
+            String month = k.substring(PREFIX.length(), k.indexOf('/', PREFIX.length()));
+            months.add(YearMonth.parse(month));
+            k = kv.firstKey(PREFIX + month + "/" + Character.MAX_VALUE, end);
+        }
+        return months;
+    }
+
+    @Override
+    public void read(YearMonth month, Consumer<Attendance> handler) throws IOException {
+        kv.scanPrefix(PREFIX + month + "/", (key, value) -> handler.accept(decode(value)));
+    }
+
+    // Next key of the month, numbered after the last one saved
+    private String key(YearMonth month) {
+        long n = next.computeIfAbsent(month, m -> {
+            String last = kv.lastKey(PREFIX + m + "/", PREFIX + m + "/" + Character.MAX_VALUE);
+            return last == null ? 0 : Long.parseLong(last.substring(last.lastIndexOf('/') + 1)) + 1;
+        });
+        next.put(month, n + 1);
+        return PREFIX + month + "/" + String.format("%012d", n);
+    }
+
+    private static byte[] encode(Attendance a) {
+        byte[] id = a.getEmployeeId().getBytes(StandardCharsets.UTF_8), outlet = a.getOutlet().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buf = ByteBuffer.allocate(2 + id.length + 2 + outlet.length + 4 + 8 + 8);
+        buf.putShort((short) id.length).put(id).putShort((short) outlet.length).put(outlet)
+           .putInt((int) a.getDate().toEpochDay()).putLong(a.getClockIn().toNanoOfDay())
+           .putLong(a.getClockOut() == null ? -1 : a.getClockOut().toNanoOfDay());
+        return buf.array();
+    }
+
+    private static Attendance decode(ByteBuffer buf) {
+        byte[] id = new byte[buf.getShort()];
+        buf.get(id);
+        byte[] outlet = new byte[buf.getShort()];
+        buf.get(outlet);
+        LocalDate date = LocalDate.ofEpochDay(buf.getInt());
+        LocalTime in = LocalTime.ofNanoOfDay(buf.getLong());
+        long out = buf.getLong();
+        return new Attendance(new String(id, StandardCharsets.UTF_8), date, in, out == -1 ? null : LocalTime.ofNanoOfDay(out),
+                new String(outlet, StandardCharsets.UTF_8));
+    }
+}
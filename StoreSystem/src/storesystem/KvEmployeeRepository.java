@@ -0,0 +1,53 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// Employees in the key-value store: employee/<lowercase id> -> id,name,role,password
+public class KvEmployeeRepository implements EmployeeRepository {
+    private static final String PREFIX = "employee/";
+
+    private final KeyValueStore kv;
+
+    public KvEmployeeRepository(KeyValueStore kv) {
+        this.kv = kv;
+    }
+
+    @Override
+    public void load(Reader r) throws IOException {
+        kv.scanPrefix(PREFIX, (key, value) -> {
+            String[] f = StandardCharsets.UTF_8.decode(value).toString().split(",", 4);
+            if (f.length == 4) r.employee(f[0], f[1], f[2], f[3]);
+        });
+    }
+
+    @Override
+    public void add(Employee e) throws IOException {
+        kv.put(key(e), value(e));
+    }
+
+    @Override
+    public void saveAll(List<Employee> employees) throws IOException {
+        KeyValueStore.Batch b = new KeyValueStore.Batch();
+        for (String k : kv.keys(PREFIX, PREFIX + Character.MAX_VALUE)) b.delete(k);
+        for (Employee e : employees) b.put(key(e), value(e));
+        kv.write(b); // one frame: all of the old list or all of the new one
+    }
+
+    private static String key(Employee e) {
+        return PREFIX + e.getId().toLowerCase();
+    }
+
+    private static byte[] value(Employee e) {
+        return (e.getId() + "," + e.getName() + "," + e.getRole() + "," + e.getPassword()).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.YearMonth;
+
+// Sales rows in the key-value store, sales/YYYY-MM/<slot> -> one record, so a month is one
+// range scan and editing a sale rewrites that row only
+public class KvSalesRepository implements SalesRepository {
+    private static final String PREFIX = "sales/";
+
+    private final KeyValueStore kv;
+
+    public KvSalesRepository(KeyValueStore kv) {
+        this.kv = kv;
+    }
+
+    @Override
+    public void load(Reader r) throws IOException {
+        ByteBuffer[] month = {ByteBuffer.allocate(1 << 16)};
+        int[] at = {-1, 0, 0}; // month key, rows, record size of the month being gathered
+        kv.scanPrefix(PREFIX, (key, value) -> {
+            int k = monthKey(key);
+            if (k != at[0]) {
+                flush(r, month[0], at);
+                at[0] = k;
+                at[2] = value.remaining();
+            }
+            if (month[0].remaining() < value.remaining()) {
+                month[0] = ByteBuffer.allocate(month[0].capacity() * 2).put(month[0].flip());
+            }
+            month[0].put(value);
+            at[1]++;
+        });
+        flush(r, month[0], at);
+    }
+
+    private static void flush(Reader r, ByteBuffer month, int[] at) throws IOException {
+        if (at[1] > 0) r.month(at[0], month.flip(), at[1], at[2]);
+        month.clear();
+        at[1] = 0;
+    }
+
+    @Override
+    public void write(int key, int slot, ByteBuffer rows) throws IOException {
+        KeyValueStore.Batch b = new KeyValueStore.Batch();
+        for (int i = slot; rows.hasRemaining(); i++) {
+            byte[] record = new byte[SalesStore.RECORD_SIZE];
+            rows.get(record);
+            b.put(key(key, i), record);
+        }
+        kv.write(b);
+    }
+
+    // Old rows deleted and new ones saved in one write
+    @Override
+    public void rewrite(int key, ByteBuffer rows, int recordSize) throws IOException {
+        KeyValueStore.Batch b = new KeyValueStore.Batch();
+        String month = PREFIX + YearMonth.of(key / 12, key % 12 + 1) + "/";
+        for (String k : kv.keys(month, month + Character.MAX_VALUE)) b.delete(k);
+        for (int i = 0; rows.hasRemaining(); i++) {
+            byte[] record = new byte[recordSize];
+            rows.get(record);
+            b.put(key(key, i), record);
+        }
+        kv.write(b);
+    }
+
+    @Override
+    public void sync() throws IOException {
+        kv.sync();
+    }
+
+    @Override
+    public void close() {
+        // the key-value store is closed by its owner
+    }
+
+    private static String key(int month, int slot) {
+        return PREFIX + YearMonth.of(month / 12, month % 12 + 1) + "/" + String.format("%010d", slot);
+    }
+
+    // sales/YYYY-MM/... -> month key, read from the digits
+    private static int monthKey(String key) {
+        int p = PREFIX.length();
+        int year = Integer.parseInt(key, p, p + 4, 10), month = Integer.parseInt(key, p + 5, p + 7, 10);
+        return year * 12 + month - 1;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// The stock snapshot in the key-value store, one key per model row, so saving after a few
+// sales writes those rows only instead of the whole table:
+//   stock/header         -> model title, price title, outlet count, outlet codes, row count
+//   stock/row/<row>      -> model, price text, one quantity (int) per outlet
+// Text is a short length + UTF-8. Rows past the row count are left-overs and are not read.
+public class KvStockRepository implements StockRepository {
+    private static final String HEADER = "stock/header", ROW = "stock/row/";
+
+    private final KeyValueStore kv;
+
+    public KvStockRepository(KeyValueStore kv) {
+        this.kv = kv;
+    }
+
+    @Override
+    public boolean load(Reader r) throws IOException {
+        byte[] head = kv.get(HEADER);
+        if (head == null) return false;
+        ByteBuffer buf = ByteBuffer.wrap(head);
+        String modelTitle = getText(buf), priceTitle = getText(buf);
+        String[] outlets = new String[buf.getInt()];
+        for (int i = 0; i < outlets.length; i++) outlets[i] = getText(buf);
+        int rows = buf.getInt();
+        r.header(modelTitle, priceTitle, outlets);
+        int[] q = new int[outlets.length];
+        kv.scan(ROW, key(rows), (key, value) -> {
+            String model = getText(value), price = getText(value);
+            for (int c = 0; c < q.length; c++) q[c] = value.getInt();
+            r.model(model, price, Money.parse(price), q);
+        });
+        return true;
+    }
+
+    // The header and the changed rows in one write, then forced to disk
+    @Override
+    public void save(String[] header, String[] outlets, String[] models, String[] priceText, int[] quantities,
+                     boolean[] changed) throws IOException {
+        KeyValueStore.Batch b = new KeyValueStore.Batch();
+        for (int r = 0; r < models.length; r++) {
+            if (!changed[r] && kv.contains(key(r))) continue;
+            byte[] model = models[r].getBytes(StandardCharsets.UTF_8), price = priceText[r].getBytes(StandardCharsets.UTF_8);
+            ByteBuffer row = ByteBuffer.allocate(2 + model.length + 2 + price.length + 4 * outlets.length);
+            putText(row, model);
+            putText(row, price);
+            for (int c = 0; c < outlets.length; c++) row.putInt(quantities[r * outlets.length + c]);
+            b.put(key(r), row.array());
+        }
+        for (String k : kv.keys(key(models.length), ROW + Character.MAX_VALUE)) b.delete(k);
+        int size = 2 + 2 + 4 + 4;
+        for (String s : header) size += s.getBytes(StandardCharsets.UTF_8).length;
+        for (String o : outlets) size += 2 + o.getBytes(StandardCharsets.UTF_8).length;
+        ByteBuffer head = ByteBuffer.allocate(size);
+        putText(head, header[0].getBytes(StandardCharsets.UTF_8));
+        putText(head, header[1].getBytes(StandardCharsets.UTF_8));
+        head.putInt(outlets.length);
+        for (String o : outlets) putText(head, o.getBytes(StandardCharsets.UTF_8));
+        head.putInt(models.length);
+        b.put(HEADER, head.array());
+        kv.write(b);
+        kv.sync();
+    }
+
+    // Zero-padded so that rows sort in order
+    private static String key(int row) {
+        return ROW + String.format("%09d", row);
+    }
+
+    private static void putText(ByteBuffer buf, byte[] b) {
+        buf.putShort((short) b.length).put(b);
+    }
+
+    private static String getText(ByteBuffer buf) {
+        byte[] b = new byte[buf.getShort() & 0xFFFF];
+        buf.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
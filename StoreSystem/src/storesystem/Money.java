@@ -0,0 +1,116 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.nio.ByteBuffer;
+
+// Amounts of money are kept as a long number of cents (sen), never as double, so
+// totals add up exactly. These helpers parse and print them without creating objects
+// (apart from the String returned by format).
+public final class Money {
+    private Money() {
+    }
+
+    // ================= PARSE =================
+    // "399", "459.90", "-12.5", " 7.00 "; a third decimal rounds half up, more are ignored
+    public static long parse(CharSequence s) {
+        int p = 0, e = s.length();
+        while (p < e && s.charAt(p) == ' ') p++;
+        while (e > p && s.charAt(e - 1) == ' ') e--;
+        if (p == e) throw bad(s);
+        boolean negative = s.charAt(p) == '-';
+        if (negative || s.charAt(p) == '+') p++;
+        long units = 0;
+        int digits = 0, decimals = -1, cents = 0;
+        boolean roundUp = false;
+        for (; p < e; p++) {
+            char c = s.charAt(p);
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+                continue;
+            }
+            int d = c - '0';
+            if (d < 0 || d > 9) throw bad(s);
+            digits++;
+            if (decimals < 0) {
+                if (units > (Long.MAX_VALUE / 100 - 10) / 10) throw bad(s);
+                units = units * 10 + d;
+            } else if (decimals++ < 2) {
+                cents = cents * 10 + d;
+            } else if (decimals == 3) {
+                roundUp = d >= 5;
+            }
+        }
+        if (digits == 0) throw bad(s);
+        return sign(units, cents, decimals, roundUp, negative);
+    }
+
+    // Same as parse(CharSequence) for the bytes from..to of a buffer (e.g. a mapped CSV field)
+    public static long parse(ByteBuffer buf, int from, int to) {
+        int p = from, e = to;
+        if (p == e) throw new NumberFormatException("Empty amount");
+        boolean negative = buf.get(p) == '-';
+        if (negative || buf.get(p) == '+') p++;
+        long units = 0;
+        int digits = 0, decimals = -1, cents = 0;
+        boolean roundUp = false;
+        for (; p < e; p++) {
+            byte b = buf.get(p);
+            if (b == '.' && decimals < 0) {
+                decimals = 0;
+                continue;
+            }
+            int d = b - '0';
+            if (d < 0 || d > 9) throw new NumberFormatException("Not an amount");
+            digits++;
+            if (decimals < 0) {
+                if (units > (Long.MAX_VALUE / 100 - 10) / 10) throw new NumberFormatException("Amount too large");
+                units = units * 10 + d;
+            } else if (decimals++ < 2) {
+                cents = cents * 10 + d;
+            } else if (decimals == 3) {
+                roundUp = d >= 5;
+            }
+        }
+        if (digits == 0) throw new NumberFormatException("Not an amount");
+        return sign(units, cents, decimals, roundUp, negative);
+    }
+
+    private static long sign(long units, int cents, int decimals, boolean roundUp, boolean negative) {
+        if (decimals == 1) cents *= 10; // "12.5"
+        long v = units * 100 + cents + (roundUp ? 1 : 0);
+        return negative ? -v : v;
+    }
+
+    private static NumberFormatException bad(CharSequence s) {
+        return new NumberFormatException("Not an amount: \"" + s + "\"");
+    }
+
+    // ================= MATH =================
+    // Price of qty units, failing rather than wrapping around on overflow
+    public static long times(long unitCents, int qty) {
+        return Math.multiplyExact(unitCents, qty);
+    }
+
+    // ================= FORMAT =================
+    // Appends cents as "1234.50" / "-0.05"
+    public static StringBuilder append(StringBuilder sb, long cents) {
+        if (cents < 0) {
+            sb.append('-');
+            if (cents == Long.MIN_VALUE) return sb.append("92233720368547758.08");
+            cents = -cents;
+        }
+        int fraction = (int) (cents % 100);
+        return sb.append(cents / 100).append('.').append((char) ('0' + fraction / 10)).append((char) ('0' + fraction % 10));
+    }
+
+    public static String format(long cents) {
+        return append(new StringBuilder(24), cents).toString();
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// Writes receipts in the background. Tills put finished receipt text on a bounded
+// queue (waiting if it is full); one writer thread takes everything queued, groups
+// it by file and appends each group in one write to a channel that stays open.
+public class ReceiptWriter {
+    // How far a batch is pushed before the writer goes back to the queue
+    public enum Durability {
+        NONE,  // kept in memory until the flush interval passes or the buffer fills
+        FLUSH, // handed to the operating system after every batch
+        FSYNC  // written and forced to disk after every batch
+    }
+
+    private static final int MAX_OPEN_FILES = 8;
+    private static final int BUFFER_LIMIT = 64 * 1024;
+
+    private final File dir;
+    private final Durability durability;
+    private final long flushMillis;
+    private final BlockingQueue<Entry> queue;
+    private final Thread writer;
+    private volatile boolean closed = false;
+
+    // Writer thread only
+    private final Map<String, FileChannel> channels = new LinkedHashMap<>(16, 0.75f, true); // least recently used first
+    private final Map<String, ByteArrayOutputStream> pending = new LinkedHashMap<>();
+    private long lastFlush = System.currentTimeMillis();
+
+    private static class Entry {
+        final String fileName;
+        final String text;
+        final CountDownLatch done; // set for flush requests
+
+        Entry(String fileName, String text, CountDownLatch done) {
+            this.fileName = fileName;
+            this.text = text;
+            this.done = done;
+        }
+    }
+
+    private static final Entry STOP = new Entry(null, null, null); // queued by close(), the last entry the writer takes
+
+    public ReceiptWriter(File dir, int capacity, long flushMillis, Durability durability) {
+        this.dir = dir;
+        this.durability = durability;
+        this.flushMillis = flushMillis;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = new Thread(this::run, "receipt-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "receipt-writer-shutdown"));
+    }
+
+    // ================= SUBMIT =================
+    // Queues text to be appended to fileName (inside dir); waits while the queue is full
+    public void submit(String fileName, String text) {
+        if (closed) throw new IllegalStateException("Receipt writer is closed");
+        try {
+            queue.put(new Entry(fileName, text, null));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Waits until everything submitted so far is in the files, e.g. before a receipt file is emailed
+    public void flush() {
+        if (!writer.isAlive()) return;
+        CountDownLatch done = new CountDownLatch(1);
+        try {
+            queue.put(new Entry(null, null, done));
+            while (!done.await(100, TimeUnit.MILLISECONDS)) {
+                if (!writer.isAlive()) return; // stopped before it got to this request
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Writes what is queued and stops the writer; later submits fail
+    public void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            if (queue.offer(STOP, 5, TimeUnit.SECONDS)) writer.join(5000); // everything queued before STOP is written first
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ================= WRITER THREAD =================
+    private void run() {
+        List<Entry> batch = new ArrayList<>();
+        while (true) {
+            try {
+                Entry first = queue.poll(Math.max(1, flushMillis), TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch);
+                }
+            } catch (InterruptedException e) {
+                queue.drainTo(batch);
+            }
+            List<CountDownLatch> waiting = new ArrayList<>();
+            boolean stop = false;
+            for (Entry e : batch) {
+                if (e == STOP) stop = true;
+                else if (e.done != null) waiting.add(e.done);
+                else pending.computeIfAbsent(e.fileName, f -> new ByteArrayOutputStream())
+                            .writeBytes(e.text.getBytes(StandardCharsets.UTF_8));
+            }
+            batch.clear();
+
+            boolean due = durability != Durability.NONE || !waiting.isEmpty() || stop
+                    || System.currentTimeMillis() - lastFlush >= flushMillis || buffered() >= BUFFER_LIMIT;
+            if (due) writePending(durability == Durability.FSYNC);
+            for (CountDownLatch d : waiting) d.countDown();
+            if (stop) break;
+        }
+        for (FileChannel ch : channels.values()) {
+            try {
+                ch.close();
+            } catch (IOException e) {
+                System.err.println("Error closing receipt file: " + e.getMessage());
+            }
+        }
+    }
+
+    private int buffered() {
+        int n = 0;
+        for (ByteArrayOutputStream b : pending.values()) n += b.size();
+        return n;
+    }
+
+    private void writePending(boolean force) {
+        for (Map.Entry<String, ByteArrayOutputStream> p : pending.entrySet()) {
+            try {
+                FileChannel ch = channel(p.getKey());
+                ByteBuffer buf = ByteBuffer.wrap(p.getValue().toByteArray());
+                while (buf.hasRemaining()) ch.write(buf);
+                if (force) ch.force(false);
+            } catch (IOException e) {
+                System.err.println("Error writing receipt file " + p.getKey() + ": " + e.getMessage());
+            }
+        }
+        pending.clear();
+        lastFlush = System.currentTimeMillis();
+    }
+
+    // One open append channel per file; the least recently used is closed past MAX_OPEN_FILES
+    private FileChannel channel(String fileName) throws IOException {
+        FileChannel ch = channels.get(fileName);
+        if (ch != null) return ch;
+        ch = FileChannel.open(new File(dir, fileName).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        channels.put(fileName, ch);
+        if (channels.size() > MAX_OPEN_FILES) {
+            Iterator<FileChannel> oldest = channels.values().iterator();
+            oldest.next().close();
+            oldest.remove();
+        }
+        return ch;
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+// Low stock alerts. Every model x outlet cell has a reorder point and a target level
+// (reorder.csv: Model,Outlet,ReorderPoint,Target; cells not listed use the default, the
+// warehouse gets none). Each stock change is checked against its own cell only; when a cell
+// drops to its reorder point a suggestion joins the queue: move enough to reach the target
+// from the outlet with the most stock above its own target, the same move as Stock In.
+// Managers approve or dismiss suggestions; one that recovers on its own leaves the queue.
+public class Replenishment implements StockListener {
+    public static final int NONE = -1; // reorder point of a cell that is never restocked
+
+    private final File file;
+    private final int defaultPoint;
+    private final String warehouse;
+
+    private StockStore store;
+    private int outlets = 0;
+    private int[] point = new int[0], target = new int[0]; // per cell, row-major like StockStore
+    private Suggestion[] open = new Suggestion[0];          // cell -> suggestion waiting, or DISMISSED
+    private final List<Suggestion> queue = new ArrayList<>(); // oldest first; entries no longer open are dropped on reading
+    private int pruneAt = 1024; // queue length that triggers dropping closed entries, so it stays bounded unread
+
+    private static final Suggestion DISMISSED = new Suggestion(-1, -1, null);
+
+    public Replenishment(File file, int defaultPoint, String warehouse) {
+        this.file = file;
+        this.defaultPoint = defaultPoint;
+        this.warehouse = warehouse;
+    }
+
+    // Reads the reorder points, queues what is already low and follows every later change
+    public void attach(StockStore store) throws IOException {
+        synchronized (this) {
+            this.store = store;
+            rebuild();
+        }
+        store.addListener(this);
+    }
+
+    private void rebuild() throws IOException {
+        outlets = store.getOutletCount();
+        int cells = store.getModelCount() * outlets;
+        point = new int[cells];
+        target = new int[cells];
+        for (int c = 0; c < outlets; c++) {
+            boolean source = store.getOutlet(c).equalsIgnoreCase(warehouse);
+            for (int i = c; i < cells; i += outlets) {
+                point[i] = source ? NONE : defaultPoint;
+                target[i] = source ? 0 : defaultPoint * 2 + 1;
+            }
+        }
+        CsvReader.read(file, row -> {
+            int r = store.findModel(row.getString(0)), c = store.findOutlet(row.getString(1));
+            if (r == -1 || c == -1) return; // header, or a model / outlet no longer in model.csv
+            int p = row.getInt(2);
+            point[r * outlets + c] = p;
+            target[r * outlets + c] = row.isEmpty(3) ? p * 2 + 1 : Math.max(row.getInt(3), p + 1);
+        });
+        open = new Suggestion[cells];
+        queue.clear();
+        int[] q = store.quantities();
+        for (int i = 0; i < cells; i++) check(i / outlets, i % outlets, q[i]);
+    }
+
+    // ================= EVENTS =================
+    @Override
+    public synchronized void stockChanged(StockStore store, int row, int col, int quantity) {
+        if (store == this.store) check(row, col, quantity);
+    }
+
+    @Override
+    public synchronized void stockLoaded(StockStore store) {
+        if (store != this.store) return;
+        try {
+            rebuild();
+        } catch (IOException e) {
+            System.out.println("Error loading reorder points: " + e.getMessage());
+        }
+    }
+
+    // O(1) for a cell that stays on the same side of its reorder point; only a cell that
+    // just dropped to it looks across the model's outlets for a source
+    private void check(int row, int col, int quantity) {
+        int i = row * outlets + col;
+        if (point[i] == NONE || quantity > point[i]) {
+            open[i] = null; // recovered (or no alerts): a later drop alerts again
+        } else if (open[i] == null) {
+            Suggestion s = new Suggestion(row, col, LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+            open[i] = s;
+            queue.add(s);
+            refresh(s, quantity);
+            if (queue.size() >= pruneAt) prune();
+        }
+    }
+
+    // Source = most stock above its own target; qty = what reaches the target, as much as the source can spare
+    private void refresh(Suggestion s, int quantity) {
+        int best = -1, spare = 0;
+        for (int c = 0; c < outlets; c++) {
+            int j = s.row * outlets + c;
+            int extra = store.getQuantity(s.row, c) - target[j];
+            if (c != s.col && extra > spare) {
+                best = c;
+                spare = extra;
+            }
+        }
+        int i = s.row * outlets + s.col;
+        s.onHand = quantity;
+        s.reorderPoint = point[i];
+        s.from = best;
+        s.qty = best == -1 ? Math.max(0, target[i] - quantity) : Math.min(spare, target[i] - quantity);
+    }
+
+    // ================= QUEUE =================
+    // Suggestions waiting for outlet col (-1 for all), oldest first, with current quantities
+    public synchronized List<Suggestion> pending(int col) {
+        prune();
+        List<Suggestion> out = new ArrayList<>();
+        for (Suggestion s : queue) {
+            if (col != -1 && s.col != col) continue;
+            refresh(s, store.getQuantity(s.row, s.col));
+            out.add(s);
+        }
+        return out;
+    }
+
+    private void prune() {
+        queue.removeIf(s -> open[s.row * outlets + s.col] != s);
+        pruneAt = Math.max(1024, queue.size() * 2); // amortised O(1) per suggestion
+    }
+
+    // Leaves the cell alone until it has gone back above its reorder point
+    public synchronized void dismiss(Suggestion s) {
+        int i = s.row * outlets + s.col;
+        if (open[i] == s) open[i] = DISMISSED;
+    }
+
+    // Makes the suggested move as it stands now and returns it; null if the suggestion is gone,
+    // there is nothing to move or the source no longer has the stock. A move from -1 is not
+    // made: no outlet can spare any, so the quantity has to come from the supplier.
+    public Move approve(Suggestion s, String employee) throws IOException {
+        Move m;
+        synchronized (this) {
+            if (open[s.row * outlets + s.col] != s) return null;
+            refresh(s, store.getQuantity(s.row, s.col));
+            m = new Move(s.row, s.from, s.col, s.qty);
+        }
+        if (m.qty <= 0) return null;
+        if (m.from == -1) return m;
+        return store.transfer(m.row, m.from, m.to, m.qty, employee) ? m : null;
+    }
+
+    // ================= REORDER POINTS =================
+    public synchronized int getReorderPoint(int row, int col) { return point[row * outlets + col]; }
+    public synchronized int getTarget(int row, int col) { return target[row * outlets + col]; }
+
+    // Changes one cell and saves the cells that differ from the default to reorder.csv
+    public synchronized void setReorderPoint(int row, int col, int reorderPoint, int targetLevel) throws IOException {
+        int i = row * outlets + col;
+        point[i] = reorderPoint;
+        target[i] = Math.max(targetLevel, reorderPoint + 1);
+        open[i] = null;
+        check(row, col, store.getQuantity(row, col));
+        File tmp = new File(file.getPath() + ".tmp");
+        try (PrintWriter pw = new PrintWriter(new FileWriter(tmp))) {
+            pw.println("Model,Outlet,ReorderPoint,Target");
+            for (int j = 0; j < point.length; j++) {
+                boolean source = store.getOutlet(j % outlets).equalsIgnoreCase(warehouse);
+                int p = source ? NONE : defaultPoint, t = source ? 0 : defaultPoint * 2 + 1;
+                if (point[j] == p && target[j] == t) continue;
+                pw.println(store.getModel(j / outlets) + "," + store.getOutlet(j % outlets) + "," + point[j] + "," + target[j]);
+            }
+            if (pw.checkError()) throw new IOException("Error writing " + tmp);
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // What approve() did, fixed when it ran (the suggestion itself keeps being refreshed)
+    public static class Move {
+        private final int row, from, to, qty;
+
+        private Move(int row, int from, int to, int qty) {
+            this.row = row;
+            this.from = from;
+            this.to = to;
+            this.qty = qty;
+        }
+
+        public int getModelId() { return row; }
+        public int getFromId() { return from; } // -1: order from the supplier, nothing was moved
+        public int getToId() { return to; }
+        public int getQuantity() { return qty; }
+    }
+
+    // ================= SUGGESTION =================
+    public static class Suggestion {
+        private final int row, col;
+        private final LocalDateTime created;
+        private int from = -1, qty = 0, onHand = 0, reorderPoint = 0; // as of the last refresh
+
+        private Suggestion(int row, int col, LocalDateTime created) {
+            this.row = row;
+            this.col = col;
+            this.created = created;
+        }
+
+        public int getModelId() { return row; }
+        public int getOutletId() { return col; }
+        public int getFromId() { return from; }   // -1: no outlet can spare any, order from the supplier
+        public int getQuantity() { return qty; }
+        public int getOnHand() { return onHand; }
+        public int getReorderPoint() { return reorderPoint; }
+        public LocalDateTime getCreated() { return created; }
+    }
+}
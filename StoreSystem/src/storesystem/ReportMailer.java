@@ -0,0 +1,164 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import jakarta.mail.Authenticator;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Multipart;
+import jakarta.mail.PasswordAuthentication;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeBodyPart;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeMultipart;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Sends report emails in the background. A report is first saved as a .eml file in the
+// outbox directory, so nothing is lost if sending fails or the store closes; a worker
+// thread sends it and deletes it, retrying with a growing delay. After too many failed
+// tries the file is moved to outbox/failed.
+//
+// Settings (store.properties):
+//   mail.*                     passed to Jakarta Mail as-is (mail.smtp.host, mail.smtp.port, ...)
+//   report.from / report.to    sender and recipient(s)
+//   report.username / report.password   SMTP login, none if username is missing
+//   report.retry.initialMillis, report.retry.maxMillis, report.retry.maxAttempts
+public class ReportMailer {
+    // How a message leaves the store; Transport.send normally, something else to test
+    public interface Sender {
+        void send(Message message) throws MessagingException;
+    }
+
+    private final Properties config;
+    private final File outbox;
+    private final Sender sender;
+    private final Session session;
+    private final long initialDelay, maxDelay;
+    private final int maxAttempts;
+    private final Map<String, Integer> attempts = new HashMap<>(); // file name -> failed tries (worker thread only)
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "report-mailer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public ReportMailer(Properties config, File outbox) {
+        this(config, outbox, Transport::send);
+    }
+
+    public ReportMailer(Properties config, File outbox, Sender sender) {
+        this.config = config;
+        this.outbox = outbox;
+        this.sender = sender;
+        this.initialDelay = Long.parseLong(config.getProperty("report.retry.initialMillis", "5000"));
+        this.maxDelay = Long.parseLong(config.getProperty("report.retry.maxMillis", "600000"));
+        this.maxAttempts = Integer.parseInt(config.getProperty("report.retry.maxAttempts", "10"));
+
+        Properties mail = new Properties();
+        for (String key : config.stringPropertyNames()) {
+            if (key.startsWith("mail.")) mail.setProperty(key, config.getProperty(key));
+        }
+        String user = config.getProperty("report.username", "").trim();
+        String password = config.getProperty("report.password", "");
+        this.session = user.isEmpty() ? Session.getInstance(mail) : Session.getInstance(mail, new Authenticator() {
+            @Override
+            protected PasswordAuthentication getPasswordAuthentication() {
+                return new PasswordAuthentication(user, password);
+            }
+        });
+    }
+
+    // Picks up reports left in the outbox by an earlier run
+    public void start() {
+        outbox.mkdirs();
+        File[] pending = outbox.listFiles((d, name) -> name.endsWith(".eml"));
+        if (pending == null) return;
+        Arrays.sort(pending);
+        for (File f : pending) {
+            worker.execute(() -> attempt(f));
+        }
+    }
+
+    // ================= QUEUE =================
+    // Saves the report in the outbox and returns straight away; attachment may be null
+    public void queue(String subject, String text, File attachment) throws IOException, MessagingException {
+        String to = config.getProperty("report.to", "").trim();
+        if (to.isEmpty()) throw new MessagingException("report.to is not set in store.properties");
+        String from = config.getProperty("report.from", config.getProperty("report.username", "")).trim();
+
+        Message message = new MimeMessage(session);
+        if (!from.isEmpty()) message.setFrom(new InternetAddress(from));
+        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(to));
+        message.setSubject(subject);
+
+        Multipart multipart = new MimeMultipart();
+        MimeBodyPart textPart = new MimeBodyPart();
+        textPart.setText(text);
+        multipart.addBodyPart(textPart);
+        if (attachment != null && attachment.exists()) {
+            MimeBodyPart attachmentPart = new MimeBodyPart();
+            attachmentPart.attachFile(attachment);
+            multipart.addBodyPart(attachmentPart);
+        }
+        message.setContent(multipart);
+
+        // Written whole before it appears as .eml, so the worker never sends half a file
+        outbox.mkdirs();
+        File tmp = File.createTempFile("report-", ".tmp", outbox);
+        try (OutputStream out = new FileOutputStream(tmp)) {
+            ((MimeMessage) message).writeTo(out);
+        }
+        File queued = new File(outbox, System.currentTimeMillis() + "-" + tmp.getName().replace(".tmp", ".eml"));
+        Files.move(tmp.toPath(), queued.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        worker.execute(() -> attempt(queued));
+    }
+
+    public void close() {
+        worker.shutdown();
+    }
+
+    // ================= WORKER =================
+    private void attempt(File f) {
+        if (!f.exists()) return;
+        try (InputStream in = new FileInputStream(f)) {
+            sender.send(new MimeMessage(session, in));
+        } catch (IOException | MessagingException e) {
+            int tries = attempts.merge(f.getName(), 1, Integer::sum);
+            if (tries >= maxAttempts) {
+                attempts.remove(f.getName());
+                File failed = new File(outbox, "failed");
+                failed.mkdirs();
+                f.renameTo(new File(failed, f.getName()));
+                System.err.println("Report " + f.getName() + " not sent after " + tries + " tries: " + e.getMessage());
+                return;
+            }
+            long delay = Math.min(maxDelay, initialDelay << Math.min(tries - 1, 30));
+            worker.schedule(() -> attempt(f), delay, TimeUnit.MILLISECONDS);
+            return;
+        }
+        attempts.remove(f.getName());
+        f.delete();
+    }
+}
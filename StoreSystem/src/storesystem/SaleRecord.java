@@ -14,15 +14,18 @@ public class SaleRecord {
     
     String date, time, customerName, modelName, method, employee;
     int quantity;
-    double total;
+    long cents; // total in cents, see Money
+    int row = -1; // position in SalesStore, -1 until saved
+    long transactionId = 0; // set when the checkout is saved
+    String outlet = "";
 
-    public SaleRecord(String date, String time, String customer, String model, int qty, double total, String method, String employee) {
+    public SaleRecord(String date, String time, String customer, String model, int qty, long cents, String method, String employee) {
         this.date = date;
         this.time = time;
         this.customerName = customer;
         this.modelName = model;
         this.quantity = qty;
-        this.total = total;
+        this.cents = cents;
         this.method = method;
         this.employee = employee;
     }
@@ -32,15 +35,18 @@ public class SaleRecord {
     public String getCustomerName() {return customerName;}
     public String getModelName() {return modelName;}
     public int getQuantity() {return quantity;}
-    public double getTotal() {return total;}
+    public long getCents() {return cents;}
     public String getMethod() {return method;}
     public void setMethod(String method) {this.method = method;}
     public String getEmployee() {return employee;}
+    public long getTransactionId() {return transactionId;}
+    public String getOutlet() {return outlet;}
+    public void setOutlet(String outlet) {this.outlet = outlet;}
     
     @Override
     public String toString() {
         return date + "," + time + "," + customerName + "," +
-               modelName + "," + quantity + "," + total + "," +
+               modelName + "," + quantity + "," + Money.format(cents) + "," +
                method + "," + employee;
     }
 }
@@ -0,0 +1,134 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.TreeSet;
+
+// Running totals for the analytics and performance reports, updated per sale
+// instead of recomputed from the whole history. The starting totals come from one
+// parallel pass over the store (SalesAnalytics).
+public class SalesAggregates implements SalesListener {
+    private long revenueCents = 0;
+    private int count = 0;
+
+    private int[] modelUnits = new int[0];       // model id -> units sold
+    private long[] employeeCents = new long[0];  // employee id -> total sales
+    private int[] employeeCount = new int[0];    // employee id -> transactions
+    private long[] outletCents = new long[0];    // outlet id -> total sales
+    private int[] outletCount = new int[0];      // outlet id -> transactions
+
+    // Ids ordered best first; an id is taken out before its total changes and put back after
+    private final TreeSet<Integer> modelRank = new TreeSet<>(
+            (a, b) -> modelUnits[a] != modelUnits[b] ? Integer.compare(modelUnits[b], modelUnits[a]) : Integer.compare(a, b));
+    private final TreeSet<Integer> employeeRank = new TreeSet<>(
+            (a, b) -> employeeCents[a] != employeeCents[b] ? Long.compare(employeeCents[b], employeeCents[a]) : Integer.compare(a, b));
+
+    public SalesAggregates(SalesStore store) {
+        this(store, new SalesAnalytics());
+    }
+
+    public SalesAggregates(SalesStore store, SalesAnalytics analytics) {
+        synchronized (store) { // no sale can be added between the pass and the listener
+            seed(analytics.summarize(store));
+            store.addListener(this);
+        }
+    }
+
+    private synchronized void seed(SalesAnalytics.Summary s) {
+        revenueCents = s.getRevenueCents();
+        count = s.getCount();
+        modelUnits = new int[s.getModelCount()];
+        for (int m = 0; m < modelUnits.length; m++) {
+            modelUnits[m] = s.getModelUnits(m);
+            if (modelUnits[m] != 0) modelRank.add(m);
+        }
+        employeeCents = new long[s.getEmployeeCount()];
+        employeeCount = new int[s.getEmployeeCount()];
+        for (int e = 0; e < employeeCents.length; e++) {
+            employeeCents[e] = s.getEmployeeCents(e);
+            employeeCount[e] = s.getEmployeeSales(e);
+            if (employeeCount[e] != 0) employeeRank.add(e);
+        }
+        outletCents = new long[s.getOutletCount()];
+        outletCount = new int[s.getOutletCount()];
+        for (int o = 0; o < outletCents.length; o++) {
+            outletCents[o] = s.getOutletCents(o);
+            outletCount[o] = s.getOutletSales(o);
+        }
+    }
+
+    // ================= UPDATE =================
+    @Override
+    public synchronized void saleAdded(SalesStore store, int row) {
+        apply(store.getModelId(row), store.getEmployeeId(row), store.getOutletId(row), store.getQuantity(row), store.getCents(row), 1);
+    }
+
+    // Reverses an old sale before an edit applies the new values
+    @Override
+    public synchronized void saleRemoved(SalesStore store, int row) {
+        apply(store.getModelId(row), store.getEmployeeId(row), store.getOutletId(row), -store.getQuantity(row), -store.getCents(row), -1);
+    }
+
+    private void apply(int model, int employee, int outlet, int qty, long cents, int sales) {
+        revenueCents += cents;
+        count += sales;
+
+        if (model >= modelUnits.length) modelUnits = Arrays.copyOf(modelUnits, Math.max(model + 1, modelUnits.length * 2));
+        modelRank.remove(model);
+        modelUnits[model] += qty;
+        if (modelUnits[model] != 0) modelRank.add(model);
+
+        if (employee >= employeeCents.length) {
+            int cap = Math.max(employee + 1, employeeCents.length * 2);
+            employeeCents = Arrays.copyOf(employeeCents, cap);
+            employeeCount = Arrays.copyOf(employeeCount, cap);
+        }
+        employeeRank.remove(employee);
+        employeeCents[employee] += cents;
+        employeeCount[employee] += sales;
+        if (employeeCount[employee] != 0) employeeRank.add(employee);
+
+        if (outlet >= outletCents.length) {
+            int cap = Math.max(outlet + 1, outletCents.length * 2);
+            outletCents = Arrays.copyOf(outletCents, cap);
+            outletCount = Arrays.copyOf(outletCount, cap);
+        }
+        outletCents[outlet] += cents;
+        outletCount[outlet] += sales;
+    }
+
+    // ================= READ =================
+    public synchronized long getRevenueCents() { return revenueCents; }
+    public synchronized int getCount() { return count; }
+    public synchronized int getModelUnits(int model) { return model < modelUnits.length ? modelUnits[model] : 0; }
+    public synchronized long getEmployeeCents(int employee) { return employee < employeeCents.length ? employeeCents[employee] : 0; }
+    public synchronized int getEmployeeCount(int employee) { return employee < employeeCount.length ? employeeCount[employee] : 0; }
+    public synchronized long getOutletCents(int outlet) { return outlet < outletCents.length ? outletCents[outlet] : 0; }
+    public synchronized int getOutletCount(int outlet) { return outlet < outletCount.length ? outletCount[outlet] : 0; }
+
+    // Best selling model ids, at most n (n < 0 for all)
+    public synchronized int[] topModels(int n) {
+        return top(modelRank, n);
+    }
+
+    // Employee ids by total sales, highest first, at most n (n < 0 for all)
+    public synchronized int[] topEmployees(int n) {
+        return top(employeeRank, n);
+    }
+
+    private static int[] top(TreeSet<Integer> rank, int n) {
+        int size = n < 0 ? rank.size() : Math.min(n, rank.size());
+        int[] ids = new int[size];
+        Iterator<Integer> it = rank.iterator();
+        for (int i = 0; i < size; i++) ids[i] = it.next();
+        return ids;
+    }
+}
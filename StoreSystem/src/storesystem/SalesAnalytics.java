@@ -0,0 +1,189 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Totals over the whole sales history (or a list of rows) using every core: the rows
+// are cut into chunks, each chunk is added up by a fork/join task into its own Summary,
+// and the Summaries are merged pairwise on the way back up.
+public class SalesAnalytics {
+    private static final int CHUNK = 1 << 16; // rows added up by one task
+
+    private final ForkJoinPool pool;
+
+    public SalesAnalytics() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public SalesAnalytics(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // ================= QUERY =================
+    public Summary summarize(SalesStore store) {
+        SalesStore.Columns c = store.columns();
+        return run(new Task(c, null, 0, c.size));
+    }
+
+    // Only the given rows, e.g. a date range from SalesIndex
+    public Summary summarize(SalesStore store, int[] rows) {
+        SalesStore.Columns c = store.columns();
+        return run(new Task(c, rows, 0, rows.length));
+    }
+
+    // The same pass over the columns without fork/join: every row into one Summary on the
+    // calling thread, e.g. to see what splitting the work gains
+    public Summary summarizeSequentially(SalesStore store) {
+        SalesStore.Columns c = store.columns();
+        return Summary.of(c, null, 0, c.size);
+    }
+
+    private Summary run(Task task) {
+        return task.hi - task.lo <= CHUNK ? task.compute() : pool.invoke(task); // small inputs stay on this thread
+    }
+
+    private static class Task extends RecursiveTask<Summary> {
+        private static final long serialVersionUID = 1L;
+
+        private final SalesStore.Columns c;
+        private final int[] rows; // null = every row
+        private final int lo, hi;
+
+        Task(SalesStore.Columns c, int[] rows, int lo, int hi) {
+            this.c = c;
+            this.rows = rows;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Summary compute() {
+            if (hi - lo <= CHUNK) {
+                return Summary.of(c, rows, lo, hi);
+            }
+            int mid = (lo + hi) >>> 1;
+            Task left = new Task(c, rows, lo, mid);
+            left.fork();
+            Summary right = new Task(c, rows, mid, hi).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    // ================= SUMMARY =================
+    // Mergeable totals: revenue and sale count overall, per model, employee and outlet
+    public static class Summary {
+        private long revenueCents = 0;
+        private int count = 0;
+        // Sized from the symbol tables when the column view was taken, grown if a sale edited
+        // since then already uses a newer id
+        private int[] modelUnits;      // model id -> units sold
+        private long[] employeeCents;  // employee id -> total sales
+        private int[] employeeCount;   // employee id -> sales
+        private long[] outletCents;    // outlet id -> total sales
+        private int[] outletCount;     // outlet id -> sales
+
+        private Summary(int models, int employees, int outlets) {
+            modelUnits = new int[models];
+            employeeCents = new long[employees];
+            employeeCount = new int[employees];
+            outletCents = new long[outlets];
+            outletCount = new int[outlets];
+        }
+
+        // Adds up positions lo..hi-1 (of rows, or of the store when rows is null)
+        static Summary of(SalesStore.Columns c, int[] rows, int lo, int hi) {
+            Summary s = new Summary(c.models, c.employees, c.outlets);
+            for (int i = lo; i < hi; i++) {
+                int r = rows == null ? i : rows[i];
+                // each column read once: the row may be edited meanwhile (see SalesStore.columns)
+                long cents = c.cents[r];
+                int model = c.model[r], employee = c.employee[r], outlet = c.outlet[r];
+                if (model >= s.modelUnits.length || employee >= s.employeeCents.length || outlet >= s.outletCents.length) {
+                    s.grow(model, employee, outlet);
+                }
+                s.revenueCents += cents;
+                s.modelUnits[model] += c.qty[r];
+                s.employeeCents[employee] += cents;
+                s.employeeCount[employee]++;
+                s.outletCents[outlet] += cents;
+                s.outletCount[outlet]++;
+            }
+            s.count = hi - lo;
+            return s;
+        }
+
+        // Makes room for the given ids, for a row changed after the view was taken
+        private void grow(int model, int employee, int outlet) {
+            if (model >= modelUnits.length) modelUnits = Arrays.copyOf(modelUnits, model + 1);
+            if (employee >= employeeCents.length) {
+                employeeCents = Arrays.copyOf(employeeCents, employee + 1);
+                employeeCount = Arrays.copyOf(employeeCount, employee + 1);
+            }
+            if (outlet >= outletCents.length) {
+                outletCents = Arrays.copyOf(outletCents, outlet + 1);
+                outletCount = Arrays.copyOf(outletCount, outlet + 1);
+            }
+        }
+
+        // Adds other into this one and returns this
+        Summary merge(Summary other) {
+            revenueCents += other.revenueCents;
+            count += other.count;
+            modelUnits = add(modelUnits, other.modelUnits);
+            employeeCents = add(employeeCents, other.employeeCents);
+            employeeCount = add(employeeCount, other.employeeCount);
+            outletCents = add(outletCents, other.outletCents);
+            outletCount = add(outletCount, other.outletCount);
+            return this;
+        }
+
+        // Returns into (or a longer copy when from has more ids) with from added
+        private static int[] add(int[] into, int[] from) {
+            if (from.length > into.length) into = Arrays.copyOf(into, from.length);
+            for (int i = 0; i < from.length; i++) into[i] += from[i];
+            return into;
+        }
+
+        private static long[] add(long[] into, long[] from) {
+            if (from.length > into.length) into = Arrays.copyOf(into, from.length);
+            for (int i = 0; i < from.length; i++) into[i] += from[i];
+            return into;
+        }
+
+        // ================= READ =================
+        public long getRevenueCents() { return revenueCents; }
+        public int getCount() { return count; }
+        public int getModelCount() { return modelUnits.length; }
+        public int getEmployeeCount() { return employeeCents.length; }
+        public int getOutletCount() { return outletCents.length; }
+        public int getModelUnits(int model) { return modelUnits[model]; }
+        public long getEmployeeCents(int employee) { return employeeCents[employee]; }
+        public int getEmployeeSales(int employee) { return employeeCount[employee]; }
+        public long getOutletCents(int outlet) { return outletCents[outlet]; }
+        public int getOutletSales(int outlet) { return outletCount[outlet]; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Summary)) return false;
+            Summary s = (Summary) o;
+            return revenueCents == s.revenueCents && count == s.count
+                    && Arrays.equals(modelUnits, s.modelUnits) && Arrays.equals(employeeCents, s.employeeCents)
+                    && Arrays.equals(employeeCount, s.employeeCount) && Arrays.equals(outletCents, s.outletCents)
+                    && Arrays.equals(outletCount, s.outletCount);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(revenueCents) * 31 + count;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Sales rows ordered by date so a date range is found with two binary searches
+public class SalesIndex implements SalesListener {
+    private int[] days = new int[0]; // sorted epoch days
+    private int[] rows = new int[0]; // store row for each entry, same order
+    private int size = 0;
+
+    // Builds the index from what is already in the store and keeps it updated
+    public SalesIndex(SalesStore store) {
+        synchronized (store) {
+            int n = store.size();
+            long[] keys = new long[n];
+            for (int r = 0; r < n; r++) {
+                keys[r] = ((long) store.getDay(r) << 32) | r; // day first, then row (insertion order)
+            }
+            Arrays.sort(keys);
+            days = new int[Math.max(16, n)];
+            rows = new int[Math.max(16, n)];
+            for (int i = 0; i < n; i++) {
+                days[i] = (int) (keys[i] >> 32);
+                rows[i] = (int) keys[i];
+            }
+            size = n;
+            store.addListener(this);
+        }
+    }
+
+    // ================= UPDATE =================
+    @Override
+    public synchronized void saleAdded(SalesStore store, int row) {
+        int day = store.getDay(row);
+        if (size == days.length) {
+            days = Arrays.copyOf(days, size * 2);
+            rows = Arrays.copyOf(rows, size * 2);
+        }
+        int pos = upperBound(day); // usually the end, sales arrive in date order
+        System.arraycopy(days, pos, days, pos + 1, size - pos);
+        System.arraycopy(rows, pos, rows, pos + 1, size - pos);
+        days[pos] = day;
+        rows[pos] = row;
+        size++;
+    }
+
+    @Override
+    public synchronized void saleRemoved(SalesStore store, int row) {
+        int day = store.getDay(row);
+        for (int i = lowerBound(day); i < size && days[i] == day; i++) {
+            if (rows[i] == row) {
+                System.arraycopy(days, i + 1, days, i, size - i - 1);
+                System.arraycopy(rows, i + 1, rows, i, size - i - 1);
+                size--;
+                return;
+            }
+        }
+    }
+
+    // ================= QUERY =================
+    // Rows with startDay <= day <= endDay, in date order
+    public synchronized List<Integer> range(int startDay, int endDay) {
+        int from = lowerBound(startDay);
+        int to = upperBound(endDay);
+        List<Integer> result = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) result.add(rows[i]);
+        return result;
+    }
+
+    // Highest total first
+    public static void sortByAmount(List<Integer> rows, SalesStore store) {
+        rows.sort(Comparator.comparingLong((Integer r) -> store.getCents(r)).reversed());
+    }
+
+    // A-Z by customer name; each distinct name is compared once, rows are then sorted by its rank
+    public static void sortByCustomer(List<Integer> rows, SalesStore store) {
+        SymbolTable customers = store.customers();
+        Integer[] ids = new Integer[customers.size()];
+        for (int i = 0; i < ids.length; i++) ids[i] = i;
+        Arrays.sort(ids, (a, b) -> customers.name(a).compareToIgnoreCase(customers.name(b)));
+        int[] rank = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) rank[ids[i]] = i;
+        rows.sort(Comparator.comparingInt((Integer r) -> rank[store.getCustomerId(r)]));
+    }
+
+    // first entry with day >= key
+    private int lowerBound(int key) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (days[mid] < key) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    // first entry with day > key
+    private int upperBound(int key) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (days[mid] <= key) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32C;
+
+// Write-ahead log of checkouts: sales/ledger.wal. A checkout's sale lines and the stock it
+// takes are written as one checksummed record and forced to disk before the sales segment
+// or the stock journal are touched. Tills committing at the same time share one fsync
+// (group commit). The log is emptied whenever StockStore writes a new model.csv, after the
+// sales files have been forced too, so it only ever holds the sales since that snapshot.
+// On startup recover() replays it: sales whose transaction id has no rows are added, and
+// stock movements go through StockStore.recover, which skips a cell that already has them.
+//   record = length (int) + CRC32C of payload (int) + payload
+public class SalesLedger {
+    private static final int MAGIC = 0x4C444731; // "LDG1"
+    private static final int HEADER_SIZE = 8;
+
+    private final File file;
+    private final SalesStore sales;
+    private final StockStore stock;
+    private final ReceiptWriter.Durability durability;
+    private FileChannel channel;
+    private boolean recovered = false; // nothing is cut from the log before it has been replayed
+
+    private final Object appendLock = new Object();
+    private long end = HEADER_SIZE;     // bytes written
+    private final Object syncLock = new Object();
+    private long durable = HEADER_SIZE; // bytes forced to disk
+    private boolean syncing = false;
+    private long syncs = 0, commits = 0;
+
+    public SalesLedger(File file, SalesStore sales, StockStore stock, ReceiptWriter.Durability durability) {
+        this.file = file;
+        this.sales = sales;
+        this.stock = stock;
+        this.durability = durability;
+        stock.setSnapshotHook(this::checkpoint); // before stock.load(), see recover()
+    }
+
+    // ================= RECOVER =================
+    // Call once the sales and the stock are loaded: replays what the log holds, then takes a
+    // snapshot so the log starts empty. Returns the number of checkouts that were not saved.
+    public int recover() throws IOException {
+        open();
+        long length = channel.size();
+        ByteBuffer buf = ByteBuffer.allocate((int) Math.max(0, length - HEADER_SIZE));
+        while (buf.hasRemaining() && channel.read(buf, HEADER_SIZE + buf.position()) >= 0) {
+        }
+        buf.flip();
+        List<Entry> entries = new ArrayList<>();
+        CRC32C crc = new CRC32C();
+        int good = 0; // bytes of whole, checked records
+        while (buf.remaining() >= 8) {
+            int size = buf.getInt(), sum = buf.getInt();
+            if (size <= 0 || size > buf.remaining()) break; // torn tail: crashed mid-write
+            crc.reset();
+            crc.update(buf.array(), buf.position(), size);
+            if ((int) crc.getValue() != sum) break;
+            entries.add(decode(buf.slice(buf.position(), size)));
+            buf.position(buf.position() + size);
+            good = buf.position();
+        }
+        int replayed = 0;
+        if (!entries.isEmpty()) {
+            long min = Long.MAX_VALUE;
+            for (Entry e : entries) min = Math.min(min, e.id);
+            Set<Long> saved = sales.transactionsFrom(min);
+            for (Entry e : entries) {
+                for (StockJournal.Movement m : e.movements) stock.recover(m);
+                if (!saved.contains(e.id)) {
+                    sales.addBatch(e.items);
+                    replayed++;
+                }
+            }
+        }
+        synchronized (appendLock) {
+            end = HEADER_SIZE + good;
+            channel.truncate(end);
+            durable = end;
+        }
+        recovered = true;
+        stock.compact();
+        if (end > HEADER_SIZE) checkpointNow(); // nothing in the stock journal, so no snapshot was taken
+        return replayed;
+    }
+
+    // ================= COMMIT =================
+    // Saves a checkout whose items are held in stock (StockStore.hold): log record first, then the
+    // sales rows and the stock journal. Returns the transaction id.
+    public long commit(List<SaleRecord> items, int[] rows, int[] cols, int[] qty, String employee) throws IOException {
+        if (!recovered) throw new IOException("Sales ledger not recovered");
+        long id = sales.nextTransactionId();
+        for (SaleRecord s : items) s.transactionId = id;
+        return stock.commitHeld(rows, cols, qty, employee, settled -> {
+            long at = append(encode(id, items, settled));
+            sync(at);
+            try {
+                sales.addBatch(items);
+            } catch (IOException e) { // the sale is in the log now, so it stands: recover() saves it next start
+                System.out.println("Error saving sales, transaction " + id + " kept in the sales ledger: " + e.getMessage());
+            }
+            return id;
+        });
+    }
+
+    private long append(ByteBuffer record) throws IOException {
+        synchronized (appendLock) {
+            long pos = end;
+            while (record.hasRemaining()) pos += channel.write(record, pos);
+            end = pos;
+            commits++;
+            return pos;
+        }
+    }
+
+    // Waits until the log is on disk up to the given end. One till forces the file while the
+    // others wait; records written meanwhile are covered by the next force, one for all of them.
+    private void sync(long upTo) throws IOException {
+        if (durability != ReceiptWriter.Durability.FSYNC) return;
+        while (true) {
+            synchronized (syncLock) {
+                if (durable >= upTo) return;
+                if (syncing) {
+                    try {
+                        syncLock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted waiting for the sales ledger");
+                    }
+                    continue;
+                }
+                syncing = true;
+            }
+            long target;
+            synchronized (appendLock) {
+                target = end;
+            }
+            boolean forced = false;
+            try {
+                channel.force(false);
+                forced = true;
+            } finally {
+                synchronized (syncLock) {
+                    syncing = false;
+                    if (forced) {
+                        durable = Math.max(durable, target);
+                        syncs++;
+                    }
+                    syncLock.notifyAll();
+                }
+            }
+        }
+    }
+
+    // ================= CHECKPOINT =================
+    // StockStore hook: model.csv now holds every committed sale's stock, so once the sales
+    // rows are forced too the log can start again. No commit runs meanwhile (compact holds
+    // the stock snapshot lock, commits hold its read side).
+    private void checkpoint() throws IOException {
+        if (!recovered) return;
+        checkpointNow();
+    }
+
+    private void checkpointNow() throws IOException {
+        sales.sync();
+        synchronized (appendLock) {
+            channel.truncate(HEADER_SIZE);
+            channel.force(true);
+            end = HEADER_SIZE;
+        }
+        synchronized (syncLock) {
+            durable = HEADER_SIZE;
+        }
+    }
+
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    public long getCommitCount() { synchronized (appendLock) { return commits; } }
+    public long getSyncCount() { synchronized (syncLock) { return syncs; } }
+
+    // ================= FORMAT =================
+    private void open() throws IOException {
+        if (channel != null) return;
+        file.getParentFile().mkdirs();
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() < HEADER_SIZE) {
+            ByteBuffer head = ByteBuffer.allocate(HEADER_SIZE);
+            head.putInt(MAGIC).putInt(0).flip();
+            channel.write(head, 0);
+            channel.truncate(HEADER_SIZE);
+            channel.force(true);
+        } else {
+            ByteBuffer head = ByteBuffer.allocate(4);
+            channel.read(head, 0);
+            if (head.getInt(0) != MAGIC) {
+                channel.close();
+                channel = null;
+                throw new IOException("Unrecognised sales ledger " + file);
+            }
+        }
+    }
+
+    private static class Entry {
+        long id;
+        final List<SaleRecord> items = new ArrayList<>();
+        final List<StockJournal.Movement> movements = new ArrayList<>();
+    }
+
+    // id, date, time, customer, employee, outlet, method, then per item: model, qty, cents;
+    // then per stock movement: model, outlet column, qty, balance, version, time
+    private static ByteBuffer encode(long id, List<SaleRecord> items, List<StockJournal.Movement> settled) {
+        SaleRecord first = items.get(0);
+        List<byte[]> text = new ArrayList<>();
+        int size = 8 + 4 + 4; // id, item count, movement count
+        for (String s : new String[] { first.getDate(), first.getTime(), first.getCustomerName(), first.getEmployee(),
+                first.getOutlet(), first.getMethod() }) {
+            size += add(text, s);
+        }
+        for (SaleRecord s : items) size += add(text, s.getModelName()) + 4 + 8;
+        for (StockJournal.Movement m : settled) size += add(text, m.model) + 2 + 4 + 4 + 4 + 8;
+        ByteBuffer buf = ByteBuffer.allocate(8 + size);
+        buf.putInt(size).putInt(0).putLong(id);
+        int t = 0;
+        for (int i = 0; i < 6; i++) putText(buf, text.get(t++));
+        buf.putInt(items.size());
+        for (SaleRecord s : items) {
+            putText(buf, text.get(t++));
+            buf.putInt(s.getQuantity()).putLong(s.getCents());
+        }
+        buf.putInt(settled.size());
+        for (StockJournal.Movement m : settled) {
+            putText(buf, text.get(t++));
+            buf.putShort((short) m.from).putInt(m.qty).putInt(m.fromBalance).putInt(m.fromVersion).putLong(m.time);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buf.array(), 8, size);
+        buf.putInt(4, (int) crc.getValue());
+        return buf.flip();
+    }
+
+    private static Entry decode(ByteBuffer buf) {
+        Entry e = new Entry();
+        e.id = buf.getLong();
+        String date = getText(buf), time = getText(buf), customer = getText(buf), employee = getText(buf),
+                outlet = getText(buf), method = getText(buf);
+        int n = buf.getInt();
+        for (int i = 0; i < n; i++) {
+            String model = getText(buf);
+            int qty = buf.getInt();
+            long cents = buf.getLong();
+            SaleRecord s = new SaleRecord(date, time, customer, model, qty, cents, method, employee);
+            s.setOutlet(outlet);
+            s.transactionId = e.id;
+            e.items.add(s);
+        }
+        int moves = buf.getInt();
+        for (int i = 0; i < moves; i++) {
+            String model = getText(buf);
+            int from = buf.getShort(), qty = buf.getInt(), balance = buf.getInt(), version = buf.getInt();
+            long at = buf.getLong();
+            e.movements.add(new StockJournal.Movement(at, model, from, -1, qty, balance, version, 0, 0, employee));
+        }
+        return e;
+    }
+
+    private static int add(List<byte[]> text, String s) {
+        byte[] b = (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+        text.add(b);
+        return 4 + b.length;
+    }
+
+    private static void putText(ByteBuffer buf, byte[] b) {
+        buf.putInt(b.length).put(b);
+    }
+
+    private static String getText(ByteBuffer buf) {
+        byte[] b = new byte[buf.getInt()];
+        buf.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,16 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+// Told about every change to a SalesStore so indexes and totals stay up to date.
+// An edit is reported as saleRemoved (old values still in the columns) followed by saleAdded.
+public interface SalesListener {
+    void saleAdded(SalesStore store, int row);
+    void saleRemoved(SalesStore store, int row);
+}
@@ -0,0 +1,38 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// Where SalesStore keeps its rows, month by month and in slot order: one segment file per month
+// (SegmentSalesRepository) or the key-value store (KvSalesRepository), see StorageBackend.
+// Rows are fixed-size records encoded by SalesStore; the names they refer to stay in the
+// sales/*.dict symbol tables either way.
+public interface SalesRepository {
+    // One month of saved rows: count records of recordSize bytes (SalesStore.RECORD_SIZE, or
+    // the older LEGACY_RECORD_SIZE) back to back in rows
+    interface Reader {
+        void month(int key, ByteBuffer rows, int count, int recordSize) throws IOException;
+    }
+
+    // Every month, oldest first
+    void load(Reader r) throws IOException;
+
+    // Saves records of RECORD_SIZE for the month (SalesStore.monthKey) from slot on, over what is there
+    void write(int key, int slot, ByteBuffer rows) throws IOException;
+
+    // Replaces the whole month, e.g. to bring older records up to the current size
+    void rewrite(int key, ByteBuffer rows, int recordSize) throws IOException;
+
+    // Forces every write so far to disk
+    void sync() throws IOException;
+
+    void close() throws IOException;
+}
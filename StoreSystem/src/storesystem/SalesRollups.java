@@ -0,0 +1,337 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+// Sales totals per time bucket (hour, day, month) x outlet x model, updated on every
+// sale so trend questions add up buckets instead of scanning the history.
+// Every bucket also holds "all outlets" / "all models" cells, so a query costs one
+// lookup per bucket whatever it filters on. Hours are kept per outlet only: per model
+// they would be about as many cells as there are sales.
+//
+// Saved to a file (sales/rollups.bin) with the number of sales it covers; on load only
+// newer sales are added. Editing a sale deletes the file, so it is never out of date.
+public class SalesRollups implements SalesListener {
+    public enum Granularity { HOUR, DAY, MONTH }
+
+    public static final int ALL = -1; // any outlet / any model
+    private static final int MAGIC = 0x524F4C31; // "ROL1"
+
+    // Units, revenue, sale lines and checkouts in one cell or added over several.
+    // A checkout is counted once, in the cell of its first item, so checkouts add up
+    // correctly over models; per model, lines is the number to use.
+    public static class Totals {
+        private long units, cents;
+        private int lines, transactions;
+
+        public long getUnits() { return units; }
+        public long getCents() { return cents; }
+        public int getLines() { return lines; }
+        public int getTransactions() { return transactions; }
+        public boolean isEmpty() { return lines == 0; }
+
+        void add(long units, long cents, int lines, int transactions) {
+            this.units += units;
+            this.cents += cents;
+            this.lines += lines;
+            this.transactions += transactions;
+        }
+    }
+
+    private final File file;
+    private final Map<Granularity, TreeMap<Integer, Bucket>> cubes = new EnumMap<>(Granularity.class);
+    private int covered = 0; // store rows included
+
+    public SalesRollups(File file) {
+        this.file = file;
+        for (Granularity g : Granularity.values()) cubes.put(g, new TreeMap<>());
+    }
+
+    // ================= LOAD / SAVE =================
+    // Reads the saved cubes (if still valid), adds the sales saved since and starts listening
+    public void load(SalesStore store) throws IOException {
+        synchronized (store) {
+            synchronized (this) {
+                boolean restored = false;
+                try {
+                    restored = read(store.size());
+                } catch (IOException e) {
+                    System.err.println("Rebuilding sales rollups: " + e.getMessage());
+                }
+                if (!restored) {
+                    for (TreeMap<Integer, Bucket> cube : cubes.values()) cube.clear();
+                    covered = 0;
+                }
+                SalesStore.Columns c = store.columns();
+                for (int r = covered; r < c.size; r++) {
+                    boolean first = c.txn[r] == 0 || r == 0 || c.txn[r - 1] != c.txn[r];
+                    apply(c.day[r], c.minute[r], c.outlet[r], c.model[r], c.qty[r], c.cents[r], first ? 1 : 0, 1);
+                }
+                covered = c.size;
+            }
+            store.addListener(this);
+        }
+    }
+
+    private boolean read(int storeRows) throws IOException {
+        if (!file.exists()) return false;
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // Read, not mapped: while a mapping lives Windows will not delete or replace the file
+            ByteBuffer in = ByteBuffer.allocate((int) ch.size());
+            while (in.hasRemaining()) {
+                if (ch.read(in) < 0) break;
+            }
+            in.flip();
+            if (in.remaining() < 8 || in.getInt() != MAGIC) return false;
+            int rows = in.getInt();
+            if (rows > storeRows) return false; // sales were removed from disk, start again
+            for (Granularity g : Granularity.values()) {
+                TreeMap<Integer, Bucket> cube = cubes.get(g);
+                cube.clear();
+                int buckets = in.getInt();
+                for (int b = 0; b < buckets; b++) {
+                    int id = in.getInt(), cells = in.getInt();
+                    Bucket bucket = new Bucket(cells);
+                    for (int i = 0; i < cells; i++) {
+                        bucket.add(in.getLong(), in.getLong(), in.getLong(), in.getInt(), in.getInt());
+                    }
+                    cube.put(id, bucket);
+                }
+            }
+            covered = rows;
+            return true;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Sales rollups file is cut short");
+        }
+    }
+
+    // Written to a temporary file first and moved over the old one
+    public synchronized void save() throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(covered);
+            for (Granularity g : Granularity.values()) {
+                TreeMap<Integer, Bucket> cube = cubes.get(g);
+                out.writeInt(cube.size());
+                for (Map.Entry<Integer, Bucket> e : cube.entrySet()) {
+                    Bucket b = e.getValue();
+                    out.writeInt(e.getKey());
+                    out.writeInt(b.size);
+                    for (int i = 0; i < b.keys.length; i++) {
+                        if (b.keys[i] == Bucket.EMPTY) continue;
+                        out.writeLong(b.keys[i]);
+                        out.writeLong(b.units[i]);
+                        out.writeLong(b.cents[i]);
+                        out.writeInt(b.lines[i]);
+                        out.writeInt(b.transactions[i]);
+                    }
+                }
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // ================= UPDATE =================
+    @Override
+    public synchronized void saleAdded(SalesStore store, int row) {
+        apply(store.getDay(row), store.getMinute(row), store.getOutletId(row), store.getModelId(row),
+                store.getQuantity(row), store.getCents(row), firstOfTransaction(store, row) ? 1 : 0, 1);
+        covered = Math.max(covered, row + 1);
+    }
+
+    // Called before an edit; the saved file no longer matches the history
+    @Override
+    public synchronized void saleRemoved(SalesStore store, int row) {
+        apply(store.getDay(row), store.getMinute(row), store.getOutletId(row), store.getModelId(row),
+                -store.getQuantity(row), -store.getCents(row), firstOfTransaction(store, row) ? -1 : 0, -1);
+        if (file.exists() && !file.delete()) invalidate();
+    }
+
+    // A file that cannot be deleted (e.g. open elsewhere on Windows) gets its magic zeroed instead,
+    // so the next start rebuilds from the history rather than trusting the old totals
+    private void invalidate() {
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            ByteBuffer tombstone = ByteBuffer.allocate(4);
+            while (tombstone.hasRemaining()) ch.write(tombstone, tombstone.position());
+            ch.force(true);
+        } catch (IOException e) {
+            System.out.println("Warning: stale " + file + " could not be removed, delete it before the next start");
+        }
+    }
+
+    // Items of one checkout are saved next to each other; old sales (id 0) count one each
+    private static boolean firstOfTransaction(SalesStore store, int row) {
+        long txn = store.getTransactionId(row);
+        return txn == 0 || row == 0 || store.getTransactionId(row - 1) != txn;
+    }
+
+    private void apply(int day, int minute, int outlet, int model, long units, long cents, int transactions, int lines) {
+        cell(Granularity.HOUR, day * 24 + minute / 60, outlet, ALL, units, cents, lines, transactions);
+        cell(Granularity.DAY, day, outlet, model, units, cents, lines, transactions);
+        cell(Granularity.MONTH, SalesStore.monthKey(day), outlet, model, units, cents, lines, transactions);
+    }
+
+    // Adds to (outlet, model) and to the "all" cells above it
+    private void cell(Granularity g, int bucketId, int outlet, int model, long units, long cents, int lines, int transactions) {
+        Bucket b = cubes.get(g).computeIfAbsent(bucketId, k -> new Bucket(8));
+        b.add(key(ALL, ALL), units, cents, lines, transactions);
+        b.add(key(outlet, ALL), units, cents, lines, transactions);
+        if (model == ALL) return;
+        b.add(key(ALL, model), units, cents, lines, transactions);
+        b.add(key(outlet, model), units, cents, lines, transactions);
+    }
+
+    // ================= QUERY =================
+    // Bucket ids, all counted from the epoch so consecutive buckets have consecutive ids
+    public static int hourBucket(LocalDate date, int hour) { return (int) date.toEpochDay() * 24 + hour; }
+    public static int dayBucket(LocalDate date) { return (int) date.toEpochDay(); }
+    public static int monthBucket(YearMonth month) { return month.getYear() * 12 + month.getMonthValue() - 1; }
+
+    // Totals over buckets from..to (inclusive) for one outlet / model or ALL
+    public synchronized Totals total(Granularity g, int from, int to, int outlet, int model) {
+        checkModel(g, model);
+        long key = key(outlet, model);
+        Totals t = new Totals();
+        for (Bucket b : cubes.get(g).subMap(from, true, to, true).values()) {
+            b.addTo(key, t);
+        }
+        return t;
+    }
+
+    // Bucket id -> totals, for buckets from..to that had sales matching outlet / model
+    public synchronized SortedMap<Integer, Totals> series(Granularity g, int from, int to, int outlet, int model) {
+        checkModel(g, model);
+        long key = key(outlet, model);
+        SortedMap<Integer, Totals> series = new TreeMap<>();
+        for (Map.Entry<Integer, Bucket> e : cubes.get(g).subMap(from, true, to, true).entrySet()) {
+            Totals t = new Totals();
+            e.getValue().addTo(key, t);
+            if (!t.isEmpty()) series.put(e.getKey(), t);
+        }
+        return series;
+    }
+
+    // Model id -> totals over buckets from..to at one outlet or ALL (days and months only)
+    public synchronized Map<Integer, Totals> byModel(Granularity g, int from, int to, int outlet) {
+        checkModel(g, 0);
+        return breakdown(g, from, to, outlet, true);
+    }
+
+    // Outlet id -> totals over buckets from..to for one model or ALL
+    public synchronized Map<Integer, Totals> byOutlet(Granularity g, int from, int to, int model) {
+        checkModel(g, model);
+        return breakdown(g, from, to, model, false);
+    }
+
+    private Map<Integer, Totals> breakdown(Granularity g, int from, int to, int fixed, boolean byModel) {
+        Map<Integer, Totals> result = new HashMap<>();
+        for (Bucket b : cubes.get(g).subMap(from, true, to, true).values()) {
+            for (int i = 0; i < b.keys.length; i++) {
+                long k = b.keys[i];
+                if (k == Bucket.EMPTY) continue;
+                int outlet = outletOf(k), model = modelOf(k);
+                int grouped = byModel ? model : outlet, other = byModel ? outlet : model;
+                if (grouped == ALL || other != fixed) continue;
+                result.computeIfAbsent(grouped, x -> new Totals())
+                      .add(b.units[i], b.cents[i], b.lines[i], b.transactions[i]);
+            }
+        }
+        return result;
+    }
+
+    private static void checkModel(Granularity g, int model) {
+        if (g == Granularity.HOUR && model != ALL) {
+            throw new IllegalArgumentException("Hourly totals are kept per outlet only");
+        }
+    }
+
+    // ================= CELLS =================
+    // outlet and model ids + 1 (0 = ALL) in the high and low 32 bits
+    private static long key(int outlet, int model) {
+        return ((long) (outlet + 1) << 32) | ((model + 1) & 0xFFFFFFFFL);
+    }
+
+    private static int outletOf(long key) { return (int) (key >>> 32) - 1; }
+    private static int modelOf(long key) { return (int) key - 1; }
+
+    // Cells of one bucket in an open addressing table (parallel arrays, no object per cell)
+    private static class Bucket {
+        static final long EMPTY = -1;
+        long[] keys, units, cents;
+        int[] lines, transactions;
+        int size = 0;
+
+        Bucket(int expected) {
+            int cap = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) * 2;
+            keys = new long[cap];
+            Arrays.fill(keys, EMPTY);
+            units = new long[cap];
+            cents = new long[cap];
+            lines = new int[cap];
+            transactions = new int[cap];
+        }
+
+        void add(long key, long u, long c, int l, int t) {
+            if ((size + 1) * 4 > keys.length * 3) grow();
+            int i = slot(key);
+            if (keys[i] == EMPTY) {
+                keys[i] = key;
+                size++;
+            }
+            units[i] += u;
+            cents[i] += c;
+            lines[i] += l;
+            transactions[i] += t;
+        }
+
+        void addTo(long key, Totals t) {
+            int i = slot(key);
+            if (keys[i] != EMPTY) t.add(units[i], cents[i], lines[i], transactions[i]);
+        }
+
+        private int slot(long key) {
+            int mask = keys.length - 1;
+            int i = (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+            while (keys[i] != EMPTY && keys[i] != key) i = (i + 1) & mask;
+            return i;
+        }
+
+        private void grow() {
+            Bucket bigger = new Bucket(keys.length);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY) bigger.add(keys[i], units[i], cents[i], lines[i], transactions[i]);
+            }
+            keys = bigger.keys;
+            units = bigger.units;
+            cents = bigger.cents;
+            lines = bigger.lines;
+            transactions = bigger.transactions;
+        }
+    }
+}
@@ -0,0 +1,428 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Sales history kept as columns (one array per SaleRecord field) and saved month by month
+// through a SalesRepository, by default one segment file per month: sales/sales-YYYY-MM.seg
+public class SalesStore {
+    // day + minute + model + customer + employee + method + qty + cents (older records, upgraded on first write)
+    static final int LEGACY_RECORD_SIZE = 4 + 2 + 4 + 4 + 4 + 4 + 4 + 8;
+    // ... + transaction id + outlet
+    static final int RECORD_SIZE = LEGACY_RECORD_SIZE + 8 + 4;
+
+    private final File dir;
+    private final SalesRepository repository;
+    private final SymbolTable models, customers, employees, methods, outlets;
+
+    // ===== Columns =====
+    private int size = 0;
+    private int[] day = new int[0];          // epoch day
+    private short[] minute = new short[0];   // minute of day
+    private int[] model = new int[0], customer = new int[0], employee = new int[0], method = new int[0];
+    private int[] qty = new int[0];
+    private long[] cents = new long[0];
+    private long[] txn = new long[0];        // transaction id, shared by the items of one checkout
+    private int[] outlet = new int[0];
+    private int[] slot = new int[0];         // position of the row inside its month segment
+
+    private final Map<Integer, Integer> segmentRows = new HashMap<>(); // month key -> rows saved
+    private final Set<Integer> legacySegments = new HashSet<>(); // month keys still in LEGACY_RECORD_SIZE
+    private long lastTransaction = 0;
+    private final List<SalesListener> listeners = new CopyOnWriteArrayList<>();
+
+    public SalesStore(File dir) {
+        this(dir, new SegmentSalesRepository(dir));
+    }
+
+    // The symbol tables stay in dir whichever repository holds the rows
+    public SalesStore(File dir, SalesRepository repository) {
+        this.dir = dir;
+        this.repository = repository;
+        this.models = new SymbolTable(new File(dir, "models.dict"));
+        this.customers = new SymbolTable(new File(dir, "customers.dict"));
+        this.employees = new SymbolTable(new File(dir, "employees.dict"));
+        this.methods = new SymbolTable(new File(dir, "methods.dict"));
+        this.outlets = new SymbolTable(new File(dir, "outlets.dict"));
+    }
+
+    // ================= LOAD =================
+    public synchronized void load() throws IOException {
+        dir.mkdirs();
+        models.load();
+        customers.load();
+        employees.load();
+        methods.load();
+        outlets.load();
+        size = 0;
+        segmentRows.clear();
+        legacySegments.clear();
+        lastTransaction = 0;
+        int unknownOutlet = outlets.intern("");
+        outlets.flush();
+
+        repository.load((key, buf, rows, recordSize) -> {
+            boolean legacy = recordSize == LEGACY_RECORD_SIZE;
+            if (!legacy && recordSize != RECORD_SIZE) throw new IOException("Unrecognised sales records of " + recordSize + " bytes");
+            ensureCapacity(size + rows);
+            for (int i = 0; i < rows; i++) {
+                int r = size++;
+                day[r] = buf.getInt();
+                minute[r] = buf.getShort();
+                // ids from files written before lookup ignored case may be a second spelling
+                model[r] = models.canonical(buf.getInt());
+                customer[r] = customers.canonical(buf.getInt());
+                employee[r] = employees.canonical(buf.getInt());
+                method[r] = methods.canonical(buf.getInt());
+                qty[r] = buf.getInt();
+                cents[r] = buf.getLong();
+                if (legacy) {
+                    txn[r] = 0; // unknown, sold before transactions were recorded
+                    outlet[r] = unknownOutlet;
+                } else {
+                    txn[r] = buf.getLong();
+                    outlet[r] = outlets.canonical(buf.getInt());
+                }
+                lastTransaction = Math.max(lastTransaction, txn[r]);
+                slot[r] = i;
+            }
+            segmentRows.put(key, rows);
+            if (legacy) legacySegments.add(key);
+        });
+    }
+
+    public void addListener(SalesListener l) {
+        listeners.add(l);
+    }
+
+    // ================= WRITE =================
+    // Appends one sale as a transaction of its own and returns its row number
+    public synchronized int add(SaleRecord s) throws IOException {
+        addTransaction(List.of(s));
+        return s.row;
+    }
+
+    // Saves the items of one checkout together: one new transaction id, one write.
+    // All items must share the same date. Returns the transaction id.
+    public synchronized long addTransaction(List<SaleRecord> items) throws IOException {
+        if (items.isEmpty()) throw new IllegalArgumentException("Transaction has no items");
+        long id = ++lastTransaction;
+        int first = size;
+        ensureCapacity(first + items.size());
+        int key = -1;
+        for (int i = 0; i < items.size(); i++) {
+            SaleRecord s = items.get(i);
+            s.transactionId = id;
+            int r = first + i;
+            fill(r, s);
+            if (key == -1) key = monthKey(day[r]);
+            else if (monthKey(day[r]) != key) throw new IllegalArgumentException("Transaction items span months");
+            slot[r] = segmentRows.getOrDefault(key, 0) + i;
+        }
+        writeRows(first, items.size());
+        segmentRows.put(key, slot[first] + items.size());
+        size += items.size();
+        for (int i = 0; i < items.size(); i++) {
+            items.get(i).row = first + i;
+            for (SalesListener l : listeners) l.saleAdded(this, first + i);
+        }
+        return id;
+    }
+
+    // Reserves the id of a transaction saved later with addBatch (see SalesLedger)
+    public synchronized long nextTransactionId() {
+        return ++lastTransaction;
+    }
+
+    // Transaction ids from min upwards that have rows, e.g. to skip sales already saved
+    public synchronized Set<Long> transactionsFrom(long min) {
+        Set<Long> ids = new HashSet<>();
+        for (int r = 0; r < size; r++) {
+            if (txn[r] >= min) ids.add(txn[r]);
+        }
+        return ids;
+    }
+
+    // Bulk append for imports: a sale keeps its transaction id if it has one, otherwise it
+    // becomes a transaction of its own. Sales are grouped by month (keeping their order
+    // within a month) and each month is written with one write.
+    public synchronized void addBatch(List<SaleRecord> batch) throws IOException {
+        List<SaleRecord> sorted = batch;
+        for (int i = 1; i < batch.size(); i++) {
+            if (batch.get(i).getDate().compareTo(batch.get(i - 1).getDate()) < 0) { // not in date order
+                sorted = new ArrayList<>(batch);
+                sorted.sort(Comparator.comparing(SaleRecord::getDate));
+                break;
+            }
+        }
+        int first = size;
+        ensureCapacity(first + sorted.size());
+        int runStart = first;
+        for (int i = 0; i < sorted.size(); i++) {
+            SaleRecord s = sorted.get(i);
+            if (s.transactionId <= 0) s.transactionId = ++lastTransaction;
+            else lastTransaction = Math.max(lastTransaction, s.transactionId);
+            int r = first + i;
+            fill(r, s);
+            s.row = r;
+            if (r > runStart && monthKey(day[r]) != monthKey(day[runStart])) {
+                writeMonth(runStart, r - runStart);
+                runStart = r;
+            }
+        }
+        if (!sorted.isEmpty()) writeMonth(runStart, first + sorted.size() - runStart);
+        size += sorted.size();
+        for (int r = first; r < size; r++) {
+            for (SalesListener l : listeners) l.saleAdded(this, r);
+        }
+    }
+
+    // Appends count consecutive rows of one month to the end of its segment
+    private void writeMonth(int start, int count) throws IOException {
+        int key = monthKey(day[start]);
+        int base = segmentRows.getOrDefault(key, 0);
+        for (int i = 0; i < count; i++) slot[start + i] = base + i;
+        writeRows(start, count);
+        segmentRows.put(key, base + count);
+    }
+
+    // Rewrites a sale in place (same date, so same segment and slot). The date and time are parsed
+    // before the listeners hear of it; if saving still fails, the old row is put back and re-added.
+    public synchronized void update(SaleRecord s) throws IOException {
+        int r = s.row;
+        if (r < 0 || r >= size) throw new IllegalArgumentException("Sale is not in the store");
+        if (monthKey(toDay(s.getDate())) != monthKey(day[r])) {
+            throw new IllegalArgumentException("Sale date cannot move to another month");
+        }
+        toMinute(s.getTime());
+        SaleRecord old = get(r);
+        int oldSlot = slot[r];
+        for (SalesListener l : listeners) l.saleRemoved(this, r);
+        try {
+            fill(r, s);
+            slot[r] = oldSlot;
+            writeRows(r, 1);
+        } catch (IOException | RuntimeException e) {
+            fill(r, old);
+            slot[r] = oldSlot;
+            try {
+                writeRows(r, 1);
+            } catch (IOException again) {
+                e.addSuppressed(again);
+            }
+            for (SalesListener l : listeners) l.saleAdded(this, r);
+            throw e;
+        }
+        for (SalesListener l : listeners) l.saleAdded(this, r);
+    }
+
+    private void flushSymbols() throws IOException {
+        models.flush();
+        customers.flush();
+        employees.flush();
+        methods.flush();
+        outlets.flush();
+    }
+
+    // Forces every row and name written so far to disk
+    public synchronized void sync() throws IOException {
+        models.sync();
+        customers.sync();
+        employees.sync();
+        methods.sync();
+        outlets.sync();
+        repository.sync();
+    }
+
+    public synchronized void close() throws IOException {
+        repository.close();
+        models.close();
+        customers.close();
+        employees.close();
+        methods.close();
+        outlets.close();
+    }
+
+    private void fill(int r, SaleRecord s) throws IOException {
+        day[r] = toDay(s.getDate());
+        minute[r] = toMinute(s.getTime());
+        model[r] = models.intern(s.getModelName());
+        customer[r] = customers.intern(s.getCustomerName());
+        employee[r] = employees.intern(s.getEmployee());
+        method[r] = methods.intern(s.getMethod());
+        qty[r] = s.getQuantity();
+        cents[r] = s.getCents();
+        txn[r] = s.getTransactionId();
+        outlet[r] = outlets.intern(s.getOutlet());
+    }
+
+    // Writes count consecutive rows, all in the same month, with one write
+    private void writeRows(int first, int count) throws IOException {
+        flushSymbols(); // names first, so a row on disk never refers to a missing id
+        int key = monthKey(day[first]);
+        if (legacySegments.remove(key)) upgrade(key);
+        ByteBuffer buf = ByteBuffer.allocate(RECORD_SIZE * count);
+        for (int r = first; r < first + count; r++) {
+            encode(buf, r);
+        }
+        repository.write(key, slot[first], buf.flip());
+    }
+
+    private void encode(ByteBuffer buf, int r) {
+        buf.putInt(day[r]).putShort(minute[r]).putInt(model[r]).putInt(customer[r])
+           .putInt(employee[r]).putInt(method[r]).putInt(qty[r]).putLong(cents[r])
+           .putLong(txn[r]).putInt(outlet[r]);
+    }
+
+    // Saves a month of older, shorter records again in the current format from the rows in memory
+    private void upgrade(int key) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(RECORD_SIZE * segmentRows.getOrDefault(key, 0));
+        for (int r = 0; r < size; r++) {
+            if (monthKey(day[r]) != key) continue;
+            buf.position(slot[r] * RECORD_SIZE);
+            encode(buf, r);
+        }
+        repository.rewrite(key, buf.position(0), RECORD_SIZE);
+    }
+
+    private void ensureCapacity(int n) {
+        if (n <= day.length) return;
+        int cap = Math.max(n, Math.max(16, day.length * 2));
+        day = Arrays.copyOf(day, cap);
+        minute = Arrays.copyOf(minute, cap);
+        model = Arrays.copyOf(model, cap);
+        customer = Arrays.copyOf(customer, cap);
+        employee = Arrays.copyOf(employee, cap);
+        method = Arrays.copyOf(method, cap);
+        qty = Arrays.copyOf(qty, cap);
+        cents = Arrays.copyOf(cents, cap);
+        txn = Arrays.copyOf(txn, cap);
+        outlet = Arrays.copyOf(outlet, cap);
+        slot = Arrays.copyOf(slot, cap);
+    }
+
+    static int monthKey(int epochDay) {
+        LocalDate d = LocalDate.ofEpochDay(epochDay);
+        return d.getYear() * 12 + d.getMonthValue() - 1;
+    }
+
+    // ================= READ =================
+    public synchronized int size() { return size; }
+    public synchronized int getDay(int r) { return day[r]; }
+    public synchronized int getMinute(int r) { return minute[r]; }
+    public synchronized int getModelId(int r) { return model[r]; }
+    public synchronized int getCustomerId(int r) { return customer[r]; }
+    public synchronized int getEmployeeId(int r) { return employee[r]; }
+    public synchronized int getMethodId(int r) { return method[r]; }
+    public synchronized int getQuantity(int r) { return qty[r]; }
+    public synchronized long getCents(int r) { return cents[r]; }
+    public synchronized long getTransactionId(int r) { return txn[r]; }
+    public synchronized int getOutletId(int r) { return outlet[r]; }
+
+    public SymbolTable models() { return models; }
+    public SymbolTable customers() { return customers; }
+    public SymbolTable employees() { return employees; }
+    public SymbolTable methods() { return methods; }
+    public SymbolTable outlets() { return outlets; }
+
+    // Read-only view of rows 0..size-1 for scans that should not take the store lock per row.
+    // Rows are only appended (arrays are copied when they grow), so the view stays valid;
+    // a sale edited meanwhile may be seen with its old or new values, and the new ones can
+    // use ids interned after the view was taken (at or above the sizes below).
+    static final class Columns {
+        final int size;
+        final int[] day, model, employee, qty, outlet;
+        final short[] minute;
+        final long[] cents, txn;
+        final int models, employees, outlets; // symbol table sizes when the view was taken
+
+        private Columns(SalesStore s) {
+            size = s.size;
+            day = s.day;
+            model = s.model;
+            employee = s.employee;
+            qty = s.qty;
+            outlet = s.outlet;
+            cents = s.cents;
+            minute = s.minute;
+            txn = s.txn;
+            models = s.models.size();
+            employees = s.employees.size();
+            outlets = s.outlets.size();
+        }
+    }
+
+    synchronized Columns columns() {
+        return new Columns(this);
+    }
+
+    // Builds a SaleRecord for one row, e.g. for printing or editing
+    public synchronized SaleRecord get(int r) {
+        SaleRecord s = new SaleRecord(LocalDate.ofEpochDay(day[r]).toString(), formatMinute(minute[r]),
+                customers.name(customer[r]), models.name(model[r]), qty[r], cents[r],
+                methods.name(method[r]), employees.name(employee[r]));
+        s.row = r;
+        s.transactionId = txn[r];
+        s.outlet = outlets.name(outlet[r]);
+        return s;
+    }
+
+    // ================= TIME =================
+    // Epoch day of a "YYYY-MM-DD" date, without going through a formatter for the usual shape
+    static int toDay(String date) {
+        if (date.length() == 10 && date.charAt(4) == '-' && date.charAt(7) == '-') {
+            int y = digits(date, 0, 4), m = digits(date, 5, 7), d = digits(date, 8, 10);
+            if (y >= 0 && m >= 0 && d >= 0) return (int) LocalDate.of(y, m, d).toEpochDay();
+        }
+        return (int) LocalDate.parse(date).toEpochDay();
+    }
+
+    private static int digits(String s, int from, int to) {
+        int v = 0;
+        for (int i = from; i < to; i++) {
+            int c = s.charAt(i) - '0';
+            if (c < 0 || c > 9) return -1;
+            v = v * 10 + c;
+        }
+        return v;
+    }
+
+    // Sales use the "hh:mm a.m." format printed on receipts
+    static short toMinute(String time) {
+        String t = time.trim().toLowerCase();
+        int colon = t.indexOf(':');
+        int hour = Integer.parseInt(t.substring(0, colon).trim());
+        int min = Integer.parseInt(t.substring(colon + 1, colon + 3));
+        boolean pm = t.contains("p");
+        if (t.contains("a") || pm) {
+            hour = hour % 12 + (pm ? 12 : 0);
+        }
+        return (short) (hour * 60 + min);
+    }
+
+    static String formatMinute(int m) {
+        int hour = m / 60 % 12;
+        if (hour == 0) hour = 12;
+        int min = m % 60;
+        return (hour < 10 ? "0" : "") + hour + ":" + (min < 10 ? "0" : "") + min + (m < 720 ? " a.m." : " p.m.");
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Inverted index for the sales search: keyword -> matching store rows.
+// Customer names are indexed by their 1, 2 and 3 letter pieces (n-grams) so a
+// "name contains keyword" search never has to look at every sale.
+public class SalesTextIndex implements SalesListener {
+    private static final int GRAM = 3;
+
+    // ===== Rows per value =====
+    private final List<Postings> customerRows = new ArrayList<>(); // customer id -> rows
+    private final List<Postings> modelRows = new ArrayList<>();    // model id -> rows
+    private final Map<Integer, Postings> dayRows = new HashMap<>(); // epoch day -> rows
+
+    // ===== Distinct names =====
+    private final Map<String, Postings> customerGrams = new HashMap<>(); // n-gram -> customer ids
+    private int customersIndexed = 0;
+
+    public SalesTextIndex(SalesStore store) {
+        synchronized (store) {
+            for (int r = 0; r < store.size(); r++) {
+                saleAdded(store, r);
+            }
+            store.addListener(this);
+        }
+    }
+
+    // ================= UPDATE =================
+    @Override
+    public synchronized void saleAdded(SalesStore store, int row) {
+        indexNames(store);
+        rowsFor(customerRows, store.getCustomerId(row)).add(row);
+        rowsFor(modelRows, store.getModelId(row)).add(row);
+        dayRows.computeIfAbsent(store.getDay(row), d -> new Postings()).add(row);
+    }
+
+    @Override
+    public synchronized void saleRemoved(SalesStore store, int row) {
+        rowsFor(customerRows, store.getCustomerId(row)).remove(row);
+        rowsFor(modelRows, store.getModelId(row)).remove(row);
+        Postings days = dayRows.get(store.getDay(row));
+        if (days != null) days.remove(row);
+    }
+
+    // New dictionary entries since the last sale get their names indexed once
+    private void indexNames(SalesStore store) {
+        SymbolTable customers = store.customers();
+        for (; customersIndexed < customers.size(); customersIndexed++) {
+            if (customers.canonical(customersIndexed) != customersIndexed) continue; // old second spelling, no rows
+            String name = customers.name(customersIndexed).toLowerCase();
+            for (int n = 1; n <= GRAM; n++) {
+                for (int i = 0; i + n <= name.length(); i++) {
+                    customerGrams.computeIfAbsent(name.substring(i, i + n), g -> new Postings()).add(customersIndexed);
+                }
+            }
+        }
+    }
+
+    private static Postings rowsFor(List<Postings> list, int id) {
+        while (list.size() <= id) list.add(new Postings());
+        return list.get(id);
+    }
+
+    // ================= SEARCH =================
+    // Rows whose customer name contains keyword, or whose model or date equals it, in row order
+    public synchronized int[] search(String keyword, SalesStore store) {
+        Postings result = new Postings();
+        String key = keyword.toLowerCase();
+
+        for (int customer : matchingCustomers(key, store)) {
+            if (customer < customerRows.size()) result.addAll(customerRows.get(customer));
+        }
+        int model = store.models().find(keyword); // any case, same id as the stored rows
+        if (model != -1 && model < modelRows.size()) result.addAll(modelRows.get(model));
+        try {
+            Postings days = dayRows.get((int) LocalDate.parse(keyword).toEpochDay());
+            if (days != null) result.addAll(days);
+        } catch (DateTimeParseException e) {
+            // not a date, only name / model can match
+        }
+        return result.toArray();
+    }
+
+    private int[] matchingCustomers(String key, SalesStore store) {
+        if (key.isEmpty()) {
+            int[] all = new int[customersIndexed];
+            for (int i = 0; i < all.length; i++) all[i] = i;
+            return all;
+        }
+        if (key.length() <= GRAM) {
+            Postings p = customerGrams.get(key);
+            return p == null ? new int[0] : p.toArray();
+        }
+        // Longer keywords: customers having every 3-letter piece, then confirm the whole keyword
+        Postings candidates = null;
+        for (int i = 0; i + GRAM <= key.length(); i++) {
+            Postings p = customerGrams.get(key.substring(i, i + GRAM));
+            if (p == null) return new int[0];
+            if (candidates == null || p.size < candidates.size) candidates = p;
+        }
+        List<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < candidates.size; i++) {
+            int id = candidates.rows[i];
+            if (store.customers().name(id).toLowerCase().contains(key)) matches.add(id);
+        }
+        int[] result = new int[matches.size()];
+        for (int i = 0; i < result.length; i++) result[i] = matches.get(i);
+        return result;
+    }
+
+    // ================= POSTINGS =================
+    // Sorted list of ints without duplicates
+    private static class Postings {
+        int[] rows = new int[4];
+        int size = 0;
+
+        void addLast(int v) {
+            if (size == rows.length) rows = Arrays.copyOf(rows, size * 2);
+            rows[size++] = v;
+        }
+
+        void add(int v) {
+            if (size == 0 || rows[size - 1] < v) {
+                addLast(v);
+                return;
+            }
+            int pos = Arrays.binarySearch(rows, 0, size, v);
+            if (pos >= 0) return;
+            pos = -pos - 1;
+            if (size == rows.length) rows = Arrays.copyOf(rows, size * 2);
+            System.arraycopy(rows, pos, rows, pos + 1, size - pos);
+            rows[pos] = v;
+            size++;
+        }
+
+        void remove(int v) {
+            int pos = Arrays.binarySearch(rows, 0, size, v);
+            if (pos < 0) return;
+            System.arraycopy(rows, pos + 1, rows, pos, size - pos - 1);
+            size--;
+        }
+
+        // Merge of two sorted lists
+        void addAll(Postings other) {
+            int[] merged = new int[size + other.size];
+            int i = 0, j = 0, n = 0;
+            while (i < size || j < other.size) {
+                int v;
+                if (j >= other.size || (i < size && rows[i] < other.rows[j])) v = rows[i++];
+                else if (i >= size || other.rows[j] < rows[i]) v = other.rows[j++];
+                else { v = rows[i++]; j++; }
+                merged[n++] = v;
+            }
+            rows = merged.length == 0 ? new int[4] : merged;
+            size = n;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(rows, size);
+        }
+    }
+}
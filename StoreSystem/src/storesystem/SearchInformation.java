@@ -9,208 +9,261 @@ package storesystem;
  * @author Nur Hasna Nadirah
  */
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.TreeMap;
 
 public class SearchInformation {
-    public static void searchStock(
-        String modelName,
-        ArrayList<Stock> stocks,   // kept to avoid breaking other code
-        Map<String, String> outletMap
-) {
+    public static void searchStock(String modelName, StockStore stockStore, Map<String, String> outletMap) {
     System.out.println();
-    
-    boolean found = false;
-
-    try (Scanner sc = new Scanner(new java.io.File("model.csv"))) {
-
-        if (!sc.hasNextLine()) {
-            System.out.println("No stock data available.");
-            return;
-        }
-
-        // ===== Read header (outlet codes) =====
-        String headerLine = sc.nextLine();
-        String[] headers = headerLine.split(",");
-
-        while (sc.hasNextLine()) {
-            String line = sc.nextLine();
-            if (line.trim().isEmpty()) continue;
-
-            String[] data = line.split(",");
-
-            String model = data[0].trim();
-            double price = Double.parseDouble(data[1].trim());
 
-            if (model.equalsIgnoreCase(modelName)) {
-
-                System.out.println("Model: " + model);
-                System.out.println("Unit Price: RM" + price);
-                System.out.println("Stock by Outlet:");
+    int row = stockStore.findModel(modelName);
+    if (row == -1) {
+        System.out.println("No stock record found.");
+        return;
+    }
 
-                int count = 0;
+    System.out.println("Model: " + stockStore.getModel(row));
+    System.out.println("Unit Price: RM" + Money.format(stockStore.getPriceCents(row)));
+    System.out.println("Stock by Outlet:");
 
-                // ===== Start from column 2 (outlets) =====
-                for (int i = 2; i < headers.length; i++) {
-                    String outletCode = headers[i].trim();
-                    String outletName = outletMap.getOrDefault(outletCode, outletCode);
-                    int qty = Integer.parseInt(data[i].trim());
+    int count = 0;
 
-                    System.out.print(outletName + ": " + qty + "   ");
-                    count++;
+    for (int i = 0; i < stockStore.getOutletCount(); i++) {
+        String outletCode = stockStore.getOutlet(i);
+        String outletName = outletMap.getOrDefault(outletCode, outletCode);
+        int qty = stockStore.getQuantity(row, i);
 
-                    // New line after every 4 outlets
-                    if (count % 4 == 0) {
-                        System.out.println();
-                    }
-                }
+        System.out.print(outletName + ": " + qty + "   ");
+        count++;
 
-                System.out.println(); // final line break
-                found = true;
-                break;
-            }
+        // New line after every 4 outlets
+        if (count % 4 == 0) {
+            System.out.println();
         }
-
-    } catch (Exception e) {
-        System.out.println("Error reading stock data.");
     }
 
-    if (!found) {
-        System.out.println("No stock record found.");
-    }
+    System.out.println(); // final line break
 }
- public static void searchSales(String keyword, ArrayList<SaleRecord> sales) {
+ public static void searchSales(String keyword, SalesStore store, SalesTextIndex index) {
             boolean found = false;
-            for(SaleRecord s : sales){
-                if(s.getCustomerName().toLowerCase().contains(keyword.toLowerCase()) || s.getModelName().equalsIgnoreCase(keyword) || s.getDate().equals(keyword)) {
-                    System.out.println("Sales Record found:");
-                    System.out.println("Date: " + s.getDate() + "\tTime: " + s.getTime());
-                    System.out.println("Customer: " + s.getCustomerName());
-                    System.out.println("Item(s): " + s.getModelName() + "\tQuantity: " + s.getQuantity());
-                    System.out.println("Total: RM" + s.getTotal());
-                    System.out.println("Transaction Method: " + s.getMethod());
-                    System.out.println("Employee: " + s.getEmployee());
-                    System.out.println("Status: Transaction verified.");
-                    
-                    found = true;
-                }
+            for(int i : index.search(keyword, store)){ // only rows the index says match
+                SaleRecord s = store.get(i);
+                System.out.println("Sales Record found:");
+                System.out.println("Date: " + s.getDate() + "\tTime: " + s.getTime());
+                System.out.println("Customer: " + s.getCustomerName());
+                System.out.println("Item(s): " + s.getModelName() + "\tQuantity: " + s.getQuantity());
+                System.out.println("Total: RM" + Money.format(s.getCents()));
+                System.out.println("Transaction Method: " + s.getMethod());
+                System.out.println("Employee: " + s.getEmployee());
+                System.out.println("Status: Transaction verified.");
+                
+                found = true;
             }
             if(!found) {
                 System.out.println("No matching sales record found ");
             }
     }
     
-    public static void showAnalytics(ArrayList<SaleRecord> sales) {
-        if(sales.isEmpty()){
+    public static void showAnalytics(SalesStore store, SalesAggregates totals) {
+        if(totals.getCount() == 0){
             System.out.println("No sales data available for analytics.");
             return;
         }
-        double totalRevenue = 0;
-        Map<String, Integer> modelCount = new HashMap<>();
-        
-        for(SaleRecord s : sales){
-            totalRevenue += s.getTotal();
-            modelCount.put(s.getModelName(), modelCount.getOrDefault(s.getModelName(),0) + s.getQuantity());
-        }
-        String bestModel = Collections.max(modelCount.entrySet(), Map.Entry.comparingByValue()).getKey();
+        long revenueCents = totals.getRevenueCents();
+        int[] top = totals.topModels(1); // empty if no model has units left, e.g. after edits to 0
         System.out.println("\n=== Sales Analytics ===");
-        System.out.println("Total Revenue recorded: RM" + totalRevenue);
-        System.out.println("Total Transaction: " + sales.size());
-        System.out.println("Best Selling Model: " + bestModel + "( " + modelCount.get(bestModel) + " units)");
-        System.out.println("Average Sale Value: RM" + (totalRevenue / sales.size()));
+        System.out.println("Total Revenue recorded: RM" + Money.format(revenueCents));
+        System.out.println("Total Transaction: " + totals.getCount());
+        if (top.length > 0) {
+            System.out.println("Best Selling Model: " + store.models().name(top[0]) + "( " + totals.getModelUnits(top[0]) + " units)");
+        } else {
+            System.out.println("Best Selling Model: N/A");
+        }
+        System.out.println("Average Sale Value: RM" + Money.format((revenueCents + totals.getCount() / 2) / totals.getCount())); // nearest cent
+        System.out.println("Revenue by Outlet:");
+        for (int o = 0; o < store.outlets().size(); o++) {
+            if (totals.getOutletCount(o) == 0) continue;
+            String code = store.outlets().name(o);
+            System.out.println("  " + (code.isEmpty() ? "(not recorded)" : code) + ": RM"
+                    + Money.format(totals.getOutletCents(o)) + " (" + totals.getOutletCount(o) + " sales)");
+        }
     }
-    public static void filterAndSortSales(ArrayList<SaleRecord> sales, Scanner sc) {
+    public static void filterAndSortSales(SalesStore store, SalesIndex index, Scanner sc) {
         System.out.print("Enter Start Date (YYYY-MM-DD): ");
         LocalDate start = LocalDate.parse(sc.nextLine());
         System.out.print("Enter End Date (YYYY-MM-DD): ");
         LocalDate end = LocalDate.parse(sc.nextLine());
         
-        List<SaleRecord> filtered = new ArrayList<>();
-        double cumulativeTotal = 0;
-        for(SaleRecord s : sales) {
-            LocalDate saleDate = LocalDate.parse(s.getDate());
-            if(!saleDate.isBefore(start) && !saleDate.isAfter(end)) {
-                filtered.add(s);
-                cumulativeTotal = s.getTotal();
-            }
+        // Index jumps straight to the rows in range, already in date order
+        List<Integer> rows = index.range((int) start.toEpochDay(), (int) end.toEpochDay());
+        int[] rowIds = new int[rows.size()];
+        for(int i = 0; i < rowIds.length; i++) {
+            rowIds[i] = rows.get(i);
         }
-        if(filtered.isEmpty()){
+        long cumulativeCents = new SalesAnalytics().summarize(store, rowIds).getRevenueCents(); // in parallel for long ranges
+        if(rows.isEmpty()){
             System.out.println("No records found for this period");
         }
         System.out.println("Sort by (1/2/3): 1. Date 2. Amount 3. Customer Name");
         int choice = sc.nextInt();
         
-        for(int i = 0; i < filtered.size(); i++){
-            for(int j = 0; j < filtered.size() - 1; j++){
-                boolean swap = false;
-                SaleRecord r1 = filtered.get(j);
-                SaleRecord r2 = filtered.get(j + 1);
-                
-                switch(choice){
-                    case 1 -> {
-                        if(r1.getDate().compareTo(r2.getDate()) > 0)
-                            swap = true;
-                    }
-                    case 2 -> {
-                        if(r1.getTotal() < r2.getTotal())
-                            swap = true;
-                    }
-                    case 3 -> {
-                        if(r1.getCustomerName().compareToIgnoreCase(r2.getCustomerName()) > 0)
-                            swap = true;
-                    }
-                }
-                if(swap) {
-                    filtered.set(j, r2);
-                    filtered.set(j + 1, r1);
-                }
-            }
+        switch(choice){
+            case 2 -> SalesIndex.sortByAmount(rows, store);
+            case 3 -> SalesIndex.sortByCustomer(rows, store);
+            default -> { } // date order
+        }
+        List<SaleRecord> filtered = new ArrayList<>(rows.size());
+        for(int r : rows) {
+            filtered.add(store.get(r));
         }
         System.out.println("\n" + "=".repeat(80));
         System.out.printf("%-12s | %-15s | %-12s | %-5s | %-10s%n", "Date", "Customer", "Model", "Qty", "Total (RM)");
         System.out.println("-".repeat(80));
         
         for(SaleRecord s : filtered) {
-            System.out.printf("%-12s | %-15s | %-12s | %-5s | %-10s%n", s.getDate(), s.getCustomerName(), s.getModelName(), s.getQuantity(), s.getTotal());
+            System.out.printf("%-12s | %-15s | %-12s | %-5s | %-10s%n", s.getDate(), s.getCustomerName(), s.getModelName(), s.getQuantity(), Money.format(s.getCents()));
         }
         System.out.println("-".repeat(80));
-        System.out.printf("Cumulative Sales: RM %.2f%n", cumulativeTotal);
+        System.out.println("Cumulative Sales: RM " + Money.format(cumulativeCents));
         System.out.println("=".repeat(80));
     }
     
-    public static void employeePerformance(ArrayList<SaleRecord> sales) {
-        // Map to store: EmployeeName -> [Total Sales, Transaction Count]
-        Map<String, double[]> performanceMap = new HashMap<>();
+    public static void employeePerformance(SalesStore store, SalesAggregates totals) {
+        // Employee ids already ordered by total sales, highest first
+        int[] ranking = totals.topEmployees(-1);
+        System.out.println("\n" + "=".repeat(60));
+        System.out.println("\n=== Employee Performance Report(Manager only) ===");
+        System.out.println("=".repeat(60));
+        System.out.printf("%-20s | %-15s | %-12s%n", "Employee Name", "Total Sales", "Transaction");
+        System.out.println("-".repeat(60));
         
-        for(SaleRecord s : sales) {
-            String emp = s.getEmployee();
-            performanceMap.putIfAbsent(emp, new double[2]);
-            performanceMap.get(emp)[0] += s.getTotal();
-            performanceMap.get(emp)[1] += 1;
-        }
-        // 2. Convert Map to an ArrayList of a temporary helper class or Object array for sorting
-        List<Map.Entry<String, double[]>> list = new ArrayList<>(performanceMap.entrySet());
-        for(int i = 0; i < list.size() - 1; i++){
-            for(int j = 0; j < list.size() - i - 1; j++){
-                if(list.get(j).getValue()[0] < list.get(j + 1).getValue()[0]){
-                    Map.Entry<String, double[]> temp = list.get(j);
-                    list.set(j, list.get(j + 1));
-                    list.set(j + 1, temp);
+        for(int emp : ranking) {
+            System.out.printf("%-20s | RM %-12s | %-12d%n", store.employees().name(emp), Money.format(totals.getEmployeeCents(emp)), totals.getEmployeeCount(emp));
+        }
+        System.out.println("=".repeat(60));
+    }
+
+    // Chain-wide stock: per model totals, or the outlets where a model meets a condition
+    public static void stockAcrossOutlets(StockStore stockStore, Map<String, String> outletMap, Scanner sc) {
+        System.out.print("Models (e.g. DW2300-1 or DW*, blank for all): ");
+        String models = sc.nextLine();
+        System.out.print("Outlets (e.g. C60,C61, blank for all): ");
+        String outlets = sc.nextLine();
+        System.out.print("Quantity condition (e.g. >= 5, < 2, blank for none): ");
+        String condition = sc.nextLine();
+        StockQuery.Result r;
+        try {
+            r = StockQuery.on(stockStore).models(models).outlets(outlets).where(condition).run();
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+        if (r.size() == 0) {
+            System.out.println("No stock matches.");
+            return;
+        }
+        System.out.println();
+        int shown = Math.min(r.size(), 50);
+        if (r.isFiltered()) {
+            System.out.printf("%-15s | %-25s | %-8s%n", "Model", "Outlet", "Quantity");
+            System.out.println("-".repeat(54));
+            for (int i = 0; i < shown; i++) {
+                for (int j = 0; j < r.getOutletCount(); j++) {
+                    if (!r.matches(i, j)) continue;
+                    String code = r.getOutlet(j);
+                    System.out.printf("%-15s | %-25s | %-8d%n", r.getModel(i), outletMap.getOrDefault(code, code), r.getQuantity(i, j));
                 }
             }
+            System.out.println("Matching: " + r.getMatchCount() + " outlet stock(s) over " + r.size() + " model(s)");
+        } else {
+            System.out.printf("%-15s", "Model");
+            for (int j = 0; j < r.getOutletCount(); j++) System.out.printf(" %6s", r.getOutlet(j));
+            System.out.printf(" %8s%n", "Total");
+            for (int i = 0; i < shown; i++) {
+                System.out.printf("%-15s", r.getModel(i));
+                for (int j = 0; j < r.getOutletCount(); j++) System.out.printf(" %6d", r.getQuantity(i, j));
+                System.out.printf(" %8d%n", r.getTotal(i));
+            }
+            System.out.println("Total on hand: " + r.getChainTotal() + " units over " + r.size() + " model(s)");
+        }
+        if (r.size() > shown) System.out.println("(first " + shown + " models shown)");
+    }
+
+    // Trends from the rollup cubes: each table adds up a few buckets, never the sales themselves
+    public static void salesDashboard(SalesStore store, SalesRollups rollups, Scanner sc) {
+        System.out.print("Outlet code (blank for all outlets): ");
+        String code = sc.nextLine().trim();
+        int outlet = SalesRollups.ALL;
+        if (!code.isEmpty()) {
+            outlet = store.outlets().find(code);
+            if (outlet == -1) {
+                System.out.println("No sales recorded for outlet " + code);
+                return;
+            }
         }
+        LocalDate today = LocalDate.now();
+        YearMonth month = YearMonth.from(today);
         System.out.println("\n" + "=".repeat(60));
-        System.out.println("\n=== Employee Performance Report(Manager only) ===");
+        System.out.println("=== Sales Dashboard (" + (code.isEmpty() ? "all outlets" : code.toUpperCase()) + ") ===");
         System.out.println("=".repeat(60));
-        System.out.printf("%-20s | %-15s | %-12s%n", "Employee Name", "Total Sales", "Transaction");
+
+        System.out.println("\nLast 14 days");
+        System.out.printf("%-12s | %-14s | %-10s | %-8s%n", "Date", "Revenue (RM)", "Checkouts", "Units");
         System.out.println("-".repeat(60));
-        
-        for(Map.Entry<String, double[]> entry : list) {
-            System.out.printf("%-20s | RM %-12.2f | %-12.0f%n", entry.getKey(), entry.getValue()[0], entry.getValue()[1]);
+        int lastDay = SalesRollups.dayBucket(today);
+        Map<Integer, SalesRollups.Totals> days = rollups.series(SalesRollups.Granularity.DAY, lastDay - 13, lastDay, outlet, SalesRollups.ALL);
+        for (int d = lastDay - 13; d <= lastDay; d++) {
+            SalesRollups.Totals t = days.getOrDefault(d, new SalesRollups.Totals());
+            System.out.printf("%-12s | %-14s | %-10d | %-8d%n", LocalDate.ofEpochDay(d), Money.format(t.getCents()), t.getTransactions(), t.getUnits());
+        }
+
+        System.out.println("\nLast 12 months");
+        System.out.printf("%-12s | %-14s | %-10s | %-8s%n", "Month", "Revenue (RM)", "Checkouts", "Units");
+        System.out.println("-".repeat(60));
+        int lastMonth = SalesRollups.monthBucket(month);
+        Map<Integer, SalesRollups.Totals> months = rollups.series(SalesRollups.Granularity.MONTH, lastMonth - 11, lastMonth, outlet, SalesRollups.ALL);
+        for (int m = lastMonth - 11; m <= lastMonth; m++) {
+            SalesRollups.Totals t = months.getOrDefault(m, new SalesRollups.Totals());
+            System.out.printf("%-12s | %-14s | %-10d | %-8d%n", YearMonth.of(m / 12, m % 12 + 1), Money.format(t.getCents()), t.getTransactions(), t.getUnits());
+        }
+
+        System.out.println("\nBusiest hours (last 30 days)");
+        System.out.printf("%-12s | %-14s | %-10s%n", "Hour", "Revenue (RM)", "Checkouts");
+        System.out.println("-".repeat(60));
+        long[] hourCents = new long[24];
+        int[] hourCheckouts = new int[24];
+        int from = SalesRollups.hourBucket(today.minusDays(29), 0), to = SalesRollups.hourBucket(today, 23);
+        for (Map.Entry<Integer, SalesRollups.Totals> e : rollups.series(SalesRollups.Granularity.HOUR, from, to, outlet, SalesRollups.ALL).entrySet()) {
+            hourCents[e.getKey() % 24] += e.getValue().getCents();
+            hourCheckouts[e.getKey() % 24] += e.getValue().getTransactions();
+        }
+        for (int h = 0; h < 24; h++) {
+            if (hourCheckouts[h] == 0) continue;
+            System.out.printf("%-12s | %-14s | %-10d%n", (h < 10 ? "0" : "") + h + ":00", Money.format(hourCents[h]), hourCheckouts[h]);
+        }
+
+        System.out.println("\nTop models this month");
+        System.out.printf("%-20s | %-14s | %-8s%n", "Model", "Revenue (RM)", "Units");
+        System.out.println("-".repeat(60));
+        List<Map.Entry<Integer, SalesRollups.Totals>> models = new ArrayList<>(
+                rollups.byModel(SalesRollups.Granularity.MONTH, lastMonth, lastMonth, outlet).entrySet());
+        models.sort((a, b) -> Long.compare(b.getValue().getUnits(), a.getValue().getUnits()));
+        for (Map.Entry<Integer, SalesRollups.Totals> e : models.subList(0, Math.min(5, models.size()))) {
+            System.out.printf("%-20s | %-14s | %-8d%n", store.models().name(e.getKey()), Money.format(e.getValue().getCents()), e.getValue().getUnits());
+        }
+
+        if (outlet == SalesRollups.ALL) {
+            System.out.println("\nOutlets this month");
+            System.out.printf("%-20s | %-14s | %-10s%n", "Outlet", "Revenue (RM)", "Checkouts");
+            System.out.println("-".repeat(60));
+            for (Map.Entry<Integer, SalesRollups.Totals> e : new TreeMap<>(rollups.byOutlet(SalesRollups.Granularity.MONTH, lastMonth, lastMonth, SalesRollups.ALL)).entrySet()) {
+                String name = store.outlets().name(e.getKey());
+                System.out.printf("%-20s | %-14s | %-10d%n", name.isEmpty() ? "(not recorded)" : name, Money.format(e.getValue().getCents()), e.getValue().getTransactions());
+            }
         }
         System.out.println("=".repeat(60));
     }
@@ -0,0 +1,119 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// One segment file per month, sales/sales-YYYY-MM.seg: a header (magic, record size) and then
+// the records, row slot i at HEADER_SIZE + i * record size. Written in place, kept open once used.
+public class SegmentSalesRepository implements SalesRepository {
+    private static final int MAGIC = 0x53414C32; // "SAL2"
+    private static final int LEGACY_MAGIC = 0x53414C31; // "SAL1", no transaction / outlet
+    private static final int HEADER_SIZE = 8;
+
+    private final File dir;
+    private final Map<Integer, FileChannel> openSegments = new HashMap<>();
+
+    public SegmentSalesRepository(File dir) {
+        this.dir = dir;
+    }
+
+    @Override
+    public synchronized void load(Reader r) throws IOException {
+        File[] files = dir.listFiles((d, name) -> name.startsWith("sales-") && name.endsWith(".seg"));
+        if (files == null) return;
+        Arrays.sort(files); // sales-YYYY-MM sorts by date
+
+        for (File f : files) {
+            try (FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+                if (ch.size() < HEADER_SIZE) continue;
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                int magic = buf.getInt(), recordSize = buf.getInt();
+                boolean known = magic == MAGIC && recordSize == SalesStore.RECORD_SIZE
+                        || magic == LEGACY_MAGIC && recordSize == SalesStore.LEGACY_RECORD_SIZE;
+                if (!known) throw new IOException("Unrecognised sales segment " + f);
+                int rows = (int) ((ch.size() - HEADER_SIZE) / recordSize);
+                if (rows > 0) r.month(key(f), buf.slice(HEADER_SIZE, rows * recordSize), rows, recordSize);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void write(int key, int slot, ByteBuffer rows) throws IOException {
+        FileChannel ch = segment(key);
+        long pos = HEADER_SIZE + (long) slot * SalesStore.RECORD_SIZE;
+        while (rows.hasRemaining()) {
+            pos += ch.write(rows, pos);
+        }
+    }
+
+    // Written beside the segment, forced, then moved over it
+    @Override
+    public synchronized void rewrite(int key, ByteBuffer rows, int recordSize) throws IOException {
+        FileChannel open = openSegments.remove(key);
+        if (open != null) open.close();
+        File f = file(key);
+        File tmp = new File(f.getPath() + ".tmp");
+        ByteBuffer head = ByteBuffer.allocate(HEADER_SIZE);
+        head.putInt(recordSize == SalesStore.RECORD_SIZE ? MAGIC : LEGACY_MAGIC).putInt(recordSize).flip();
+        try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (head.hasRemaining()) out.write(head);
+            while (rows.hasRemaining()) out.write(rows);
+            out.force(true);
+        }
+        Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public synchronized void sync() throws IOException {
+        for (FileChannel ch : openSegments.values()) ch.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (FileChannel ch : openSegments.values()) ch.close();
+        openSegments.clear();
+    }
+
+    private FileChannel segment(int key) throws IOException {
+        FileChannel ch = openSegments.get(key);
+        if (ch != null) return ch;
+        dir.mkdirs();
+        ch = FileChannel.open(file(key).toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (ch.size() < HEADER_SIZE) {
+            ByteBuffer head = ByteBuffer.allocate(HEADER_SIZE);
+            head.putInt(MAGIC).putInt(SalesStore.RECORD_SIZE).flip();
+            ch.write(head, 0);
+        }
+        openSegments.put(key, ch);
+        return ch;
+    }
+
+    private File file(int key) {
+        return new File(dir, "sales-" + YearMonth.of(key / 12, key % 12 + 1) + ".seg");
+    }
+
+    // sales-YYYY-MM.seg -> month key
+    private static int key(File f) {
+        YearMonth ym = YearMonth.parse(f.getName().substring("sales-".length(), f.getName().length() - ".seg".length()));
+        return ym.getYear() * 12 + ym.getMonthValue() - 1;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+// Replaces System.out so every System.out.println goes to the terminal of the thread printing it
+public class SessionConsole extends OutputStream {
+    private static final ThreadLocal<PrintStream> target = new ThreadLocal<>();
+    private final PrintStream fallback;
+
+    private SessionConsole(PrintStream fallback) {
+        this.fallback = fallback;
+    }
+
+    public static synchronized void install() {
+        if (System.out instanceof Routed) return;
+        System.setOut(new Routed(new SessionConsole(System.out)));
+    }
+
+    // Output of the calling thread goes to out (null = back to the server console)
+    public static void attach(PrintStream out) {
+        if (out == null) target.remove(); else target.set(out);
+    }
+
+    private PrintStream current() {
+        PrintStream out = target.get();
+        return out == null ? fallback : out;
+    }
+
+    @Override
+    public void write(int b) {
+        current().write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        PrintStream out = current();
+        out.write(b, off, len);
+        out.flush(); // prompts have no newline, send them straight away
+    }
+
+    @Override
+    public void flush() throws IOException {
+        current().flush();
+    }
+
+    private static class Routed extends PrintStream {
+        Routed(OutputStream out) {
+            super(out, true);
+        }
+    }
+}
@@ -8,30 +8,67 @@ package storesystem;
  *
  * @author Nur Hasna Nadirah
  */
-import java.util.ArrayList;
+import java.io.IOException;
+import java.util.List;
+
+// One model at one outlet, read and updated straight in the shared StockStore so
+// every till sees the same quantity
 public class Stock {
-    private String model;
-    private int quantity;
-    private String outlet;
-    private double price; // Added for sales calculation
-
-    public Stock(String model, int quantity, String outlet, double price) {
-        this.model = model;
-        this.quantity = quantity;
+    private final StockStore store;
+    private final int row;    // model
+    private final int outlet; // outlet column
+
+    public Stock(StockStore store, int row, int outlet) {
+        this.store = store;
+        this.row = row;
         this.outlet = outlet;
-        this.price = price;
     }
 
-    public String getModel() { return model; }
-    public int getQuantity() { return quantity; }
-    public String getOutlet() { return outlet; }
+    public int getModelId() { return row; }     // row in StockStore, see StockStore.findModel
+    public int getOutletId() { return outlet; } // column in StockStore, see StockStore.findOutlet
+    public String getModel() { return store.getModel(row); }
+    public int getQuantity() { return store.getQuantity(row, outlet); }
+    public String getOutlet() { return store.getOutlet(outlet); }
+    public long getPriceCents() { return store.getPriceCents(row); } // Added for sales calculation
+
+    public void setQuantity(int quantity, String employee) throws IOException {
+        store.setQuantity(row, outlet, quantity, employee);
+    }
+
+    // Reserves qty for a sale only if that much is on hand, false otherwise; see StockStore.tryReserve
+    public boolean tryReserve(int qty) {
+        return store.tryReserve(row, outlet, qty);
+    }
+
+    // Gives back stock taken by tryReserve, e.g. when a checkout is cancelled
+    public void release(int qty) {
+        store.release(row, outlet, qty);
+    }
+
+    // Keeps qty aside for an open checkout until it is sold or put back, see StockStore.hold
+    public boolean hold(int qty) {
+        return store.hold(row, outlet, qty);
+    }
+
+    public void unhold(int qty) {
+        store.unhold(row, outlet, qty);
+    }
+
+    // Moves qty of this model to another outlet column (-1 = customer)
+    public boolean transfer(int toOutlet, int qty, String employee) throws IOException {
+        return store.transfer(row, outlet, toOutlet, qty, employee);
+    }
 
-    public void setQuantity(int quantity) {
-        this.quantity = quantity;
+    // The entry for one model, looked up once by name; the list is built in row order, so the
+    // id is its position. null if none, or if the list does not line up with the store.
+    public static Stock find(List<Stock> stocks, StockStore store, String model) {
+        int id = store.findModel(model);
+        if (id < 0 || id >= stocks.size()) return null;
+        Stock s = stocks.get(id);
+        return s.row == id && s.store == store ? s : null;
     }
-    public double getPrice() { return price; }
 
     public String toCSV() {
-        return model + "," + quantity + "," + outlet;
+        return getModel() + "," + getQuantity() + "," + getOutlet();
     }
 }
\ No newline at end of file
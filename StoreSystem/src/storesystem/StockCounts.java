@@ -0,0 +1,263 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Morning / Night stock counts. The counted quantities (typed in, or a handheld export)
+// are put in an int array laid out like StockStore.quantities() and compared with it in
+// one pass. Every count is kept under counts/:
+//   sessions.csv    one line per count: time,type,employee,checked,correct,mismatches,net,abs
+//   mismatches.csv  one line per wrong cell: time,type,model,outlet,expected,counted
+//   count-<time>-<type>.csv  the mismatches of that count, for whoever re-checks the shelves
+public class StockCounts {
+    public static final int NOT_COUNTED = -1; // cell left out of the count
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd-HHmmss");
+
+    private final File dir;
+    private final StockStore store;
+
+    public StockCounts(File dir, StockStore store) {
+        this.dir = dir;
+        this.store = store;
+    }
+
+    // An array to fill in: one cell per model and outlet, all NOT_COUNTED
+    public int[] newCount() {
+        int[] counted = new int[store.getModelCount() * store.getOutletCount()];
+        Arrays.fill(counted, NOT_COUNTED);
+        return counted;
+    }
+
+    // ================= READ =================
+    // Lines "model,counted" (for outlet col) or "model,outlet,counted"; a header line and
+    // lines with an unknown model or outlet are skipped and described in errors
+    public int[] read(File file, int col, List<String> errors) throws IOException {
+        int[] counted = newCount();
+        int outlets = store.getOutletCount();
+        int[] last = {-1, -1}; // row and column of the line before: exports list a model's outlets together
+        CsvReader.read(file, row -> {
+            boolean withOutlet = row.size() >= 3;
+            int qty;
+            try {
+                qty = row.getInt(withOutlet ? 2 : 1);
+            } catch (NumberFormatException e) {
+                if (row.lineNumber() > 1) errors.add("Line " + row.lineNumber() + ": bad count");
+                return; // header
+            }
+            int r = last[0] != -1 && row.matches(0, store.getModel(last[0])) ? last[0] : store.findModel(row.getString(0));
+            int c = withOutlet ? findOutlet(row) : col;
+            if (r == -1 || c == -1 || qty < 0) {
+                errors.add("Line " + row.lineNumber() + ": " + (r == -1 ? "unknown model " + row.getString(0)
+                        : c == -1 ? "unknown outlet " + row.getString(1) : "negative count"));
+                return;
+            }
+            last[0] = r;
+            last[1] = c;
+            counted[r * outlets + c] = qty;
+        });
+        return counted;
+    }
+
+    // Outlets are few, so compare against each code rather than building a String per line
+    private int findOutlet(CsvReader row) {
+        for (int c = 0; c < store.getOutletCount(); c++) {
+            if (row.matches(1, store.getOutlet(c))) return c;
+        }
+        return store.findOutlet(row.getString(1)); // e.g. surrounding spaces in the code
+    }
+
+    // ================= RECONCILE =================
+    // Compares counted with the stock now and records the result
+    public synchronized Result reconcile(int[] counted, String type, String employee) throws IOException {
+        int[] expected = store.quantities();
+        if (counted.length != expected.length) throw new IllegalArgumentException("Count is for another stock layout");
+        Result r = new Result(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS), type, store.getOutletCount());
+        int[] cells = new int[64];
+        int n = 0;
+        for (int i = 0; i < counted.length; i++) {
+            int c = counted[i];
+            if (c == NOT_COUNTED) continue;
+            r.checked++;
+            int diff = c - expected[i];
+            if (diff == 0) continue;
+            if (n == cells.length) cells = Arrays.copyOf(cells, n * 2);
+            cells[n++] = i;
+            r.net += diff;
+            r.abs += Math.abs(diff);
+        }
+        r.cells = Arrays.copyOf(cells, n);
+        r.expected = new int[n];
+        r.counted = new int[n];
+        for (int k = 0; k < n; k++) {
+            r.expected[k] = expected[r.cells[k]];
+            r.counted[k] = counted[r.cells[k]];
+        }
+        if (r.checked > 0) save(r, employee);
+        return r;
+    }
+
+    private void save(Result r, String employee) throws IOException {
+        dir.mkdirs();
+        String time = TIME.format(r.time);
+        try (PrintWriter pw = writer(new File(dir, "sessions.csv"))) {
+            pw.println(time + "," + r.type + "," + employee + "," + r.checked + "," + r.getCorrect()
+                    + "," + r.getMismatches() + "," + r.net + "," + r.abs);
+            if (pw.checkError()) throw new IOException("Error writing count history");
+        }
+        if (r.getMismatches() == 0) return;
+        String name = "count-" + FILE_TIME.format(r.time) + "-" + r.type;
+        r.report = new File(dir, name + ".csv");
+        for (int i = 2; r.report.exists(); i++) r.report = new File(dir, name + "-" + i + ".csv"); // same second
+        try (PrintWriter history = writer(new File(dir, "mismatches.csv"));
+                PrintWriter report = new PrintWriter(new BufferedWriter(new FileWriter(r.report)))) {
+            report.println("Model,Outlet,Expected,Counted,Difference");
+            StringBuilder sb = new StringBuilder(64);
+            for (int k = 0; k < r.getMismatches(); k++) {
+                sb.setLength(0);
+                sb.append(r.getModel(store, k)).append(',').append(r.getOutlet(store, k)).append(',')
+                        .append(r.expected[k]).append(',').append(r.counted[k]);
+                history.append(time).append(',').append(r.type).append(',').append(sb).println();
+                report.append(sb).append(',').append(String.valueOf(r.counted[k] - r.expected[k])).println();
+            }
+            if (history.checkError() || report.checkError()) throw new IOException("Error writing count report");
+        }
+    }
+
+    private static PrintWriter writer(File f) throws IOException {
+        return new PrintWriter(new BufferedWriter(new FileWriter(f, true)));
+    }
+
+    public static class Result {
+        private final LocalDateTime time;
+        private final String type;
+        private final int outlets; // to turn a cell back into row and column
+        private int checked = 0;
+        private long net = 0, abs = 0; // counted - expected, summed and summed as absolute values
+        private int[] cells, expected, counted; // the mismatched cells
+        private File report; // null when everything tallied
+
+        private Result(LocalDateTime time, String type, int outlets) {
+            this.time = time;
+            this.type = type;
+            this.outlets = outlets;
+        }
+
+        public LocalDateTime getTime() { return time; }
+        public int getChecked() { return checked; }
+        public int getCorrect() { return checked - cells.length; }
+        public int getMismatches() { return cells.length; }
+        public long getNetDifference() { return net; }
+        public long getAbsDifference() { return abs; }
+        public File getReport() { return report; }
+
+        // k-th mismatch, in model then outlet order
+        public int getRow(int k) { return cells[k] / outlets; }
+        public int getCol(int k) { return cells[k] % outlets; }
+        public String getModel(StockStore store, int k) { return store.getModel(getRow(k)); }
+        public String getOutlet(StockStore store, int k) { return store.getOutlet(getCol(k)); }
+        public int getExpected(int k) { return expected[k]; }
+        public int getCounted(int k) { return counted[k]; }
+    }
+
+    // ================= HISTORY =================
+    // Counts between from and to (inclusive), oldest first
+    public List<Session> sessions(LocalDate from, LocalDate to) throws IOException {
+        List<Session> out = new ArrayList<>();
+        String first = from.toString(), end = to.toString();
+        CsvReader.read(new File(dir, "sessions.csv"), row -> {
+            if (!inRange(row.getPrefix(0, 10), first, end)) return;
+            out.add(new Session(LocalDateTime.parse(row.getString(0)), row.getString(1), row.getString(2), row.getInt(3), row.getInt(5),
+                    row.getInt(6), row.getInt(7)));
+        });
+        return out;
+    }
+
+    // Drift per model and outlet between from and to, most units off first
+    public List<Drift> drift(LocalDate from, LocalDate to) throws IOException {
+        Map<String, Drift> byCell = new HashMap<>();
+        String first = from.toString(), end = to.toString();
+        CsvReader.read(new File(dir, "mismatches.csv"), row -> {
+            if (!inRange(row.getPrefix(0, 10), first, end)) return;
+            String model = row.getString(2), outlet = row.getString(3);
+            Drift d = byCell.computeIfAbsent(model.toLowerCase() + "," + outlet.toLowerCase(), k -> new Drift(model, outlet));
+            int diff = row.getInt(5) - row.getInt(4);
+            d.times++;
+            d.net += diff;
+            d.abs += Math.abs(diff);
+            d.last = row.getString(0); // lines are in time order
+        });
+        List<Drift> out = new ArrayList<>(byCell.values());
+        out.sort((a, b) -> a.abs != b.abs ? Long.compare(b.abs, a.abs) : Integer.compare(b.times, a.times));
+        return out;
+    }
+
+    // Lines start with an ISO date, so comparing the text compares the dates
+    private static boolean inRange(String day, String from, String to) {
+        return day.compareTo(from) >= 0 && day.compareTo(to) <= 0;
+    }
+
+    public static class Session {
+        private final LocalDateTime time;
+        private final String type, employee;
+        private final int checked, mismatches, net, abs;
+
+        private Session(LocalDateTime time, String type, String employee, int checked, int mismatches, int net, int abs) {
+            this.time = time;
+            this.type = type;
+            this.employee = employee;
+            this.checked = checked;
+            this.mismatches = mismatches;
+            this.net = net;
+            this.abs = abs;
+        }
+
+        public LocalDateTime getTime() { return time; }
+        public String getType() { return type; }
+        public String getEmployee() { return employee; }
+        public int getChecked() { return checked; }
+        public int getMismatches() { return mismatches; }
+        public int getNetDifference() { return net; }
+        public int getAbsDifference() { return abs; }
+    }
+
+    public static class Drift {
+        private final String model, outlet;
+        private int times = 0; // counts where this cell was wrong
+        private long net = 0, abs = 0;
+        private String last; // time of the latest wrong count
+
+        private Drift(String model, String outlet) {
+            this.model = model;
+            this.outlet = outlet;
+        }
+
+        public String getModel() { return model; }
+        public String getOutlet() { return outlet; }
+        public int getTimes() { return times; }
+        public long getNetDifference() { return net; }
+        public long getAbsDifference() { return abs; }
+        public LocalDateTime getLast() { return LocalDateTime.parse(last); }
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+// Append-only log of stock movements, folded back into model.csv by StockStore
+public class StockJournal {
+    private static final int MAGIC = 0x53544A33; // "STJ3"
+    private static final int VERSIONED_MAGIC = 0x53544A32; // "STJ2", records without the model row
+    private static final int LEGACY_MAGIC = 0x53544A31; // "STJ1", records without cell versions
+    private static final int HEADER_SIZE = 8;
+    private static final int MODEL_BYTES = 64; // longer names are cut; the row tells them apart
+    private static final int EMPLOYEE_BYTES = 32;
+    // time + from + to + qty + fromBalance + toBalance + model + employee
+    private static final int LEGACY_RECORD_SIZE = 8 + 2 + 2 + 4 + 4 + 4 + MODEL_BYTES + EMPLOYEE_BYTES;
+    // ... + fromVersion + toVersion
+    private static final int VERSIONED_RECORD_SIZE = LEGACY_RECORD_SIZE + 4 + 4;
+    // ... + row
+    public static final int RECORD_SIZE = VERSIONED_RECORD_SIZE + 4;
+
+    // One stock movement; from/to are outlet columns, -1 means outside the chain (HQ supplier, customer)
+    public static class Movement {
+        public final long time;
+        public final int row; // model row in the snapshot the journal belongs to, -1 if not known
+        public final String model;
+        public final int from, to, qty;
+        public final int fromBalance, toBalance; // quantities after the move, so replay is idempotent
+        public final int fromVersion, toVersion; // change count of each cell, newest wins on replay (0 = unknown)
+        public final String employee;
+
+        public Movement(long time, String model, int from, int to, int qty,
+                        int fromBalance, int fromVersion, int toBalance, int toVersion, String employee) {
+            this(time, -1, model, from, to, qty, fromBalance, fromVersion, toBalance, toVersion, employee);
+        }
+
+        public Movement(long time, int row, String model, int from, int to, int qty,
+                        int fromBalance, int fromVersion, int toBalance, int toVersion, String employee) {
+            this.time = time;
+            this.row = row;
+            this.model = model;
+            this.from = from;
+            this.to = to;
+            this.qty = qty;
+            this.fromBalance = fromBalance;
+            this.fromVersion = fromVersion;
+            this.toBalance = toBalance;
+            this.toVersion = toVersion;
+            this.employee = employee;
+        }
+
+        // The same movement against a model row, e.g. one recovered from the sales ledger
+        public Movement atRow(int row) {
+            return new Movement(time, row, model, from, to, qty, fromBalance, fromVersion, toBalance, toVersion, employee);
+        }
+    }
+
+    private final File file;
+    private FileChannel channel;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    private long records = 0;
+    private int recordSize = RECORD_SIZE; // smaller until an old journal is compacted
+
+    public StockJournal(File file) {
+        this.file = file;
+    }
+
+    public File getFile() { return file; }
+    public synchronized long size() { return records; }
+
+    // ================= REPLAY =================
+    // Feeds every complete record to the handler; a torn record at the tail (crash mid-write) is dropped
+    public synchronized long replay(Consumer<Movement> handler) throws IOException {
+        open();
+        long length = channel.size();
+        long complete = HEADER_SIZE + (length - HEADER_SIZE) / recordSize * recordSize;
+        ByteBuffer buf = ByteBuffer.allocate(recordSize);
+        long count = 0;
+        for (long pos = HEADER_SIZE; pos < complete; pos += recordSize) {
+            buf.clear();
+            while (buf.hasRemaining()) {
+                if (channel.read(buf, pos + buf.position()) < 0) break;
+            }
+            buf.flip();
+            handler.accept(decode(buf, recordSize));
+            count++;
+        }
+        if (complete < length) {
+            channel.truncate(complete);
+        }
+        records = count;
+        return count;
+    }
+
+    // ================= APPEND =================
+    public synchronized void append(Movement m) throws IOException {
+        open();
+        if (recordSize != RECORD_SIZE) throw new IOException("Old stock journal must be compacted first");
+        record.clear();
+        record.putLong(m.time);
+        record.putShort((short) m.from);
+        record.putShort((short) m.to);
+        record.putInt(m.qty);
+        record.putInt(m.fromBalance);
+        record.putInt(m.toBalance);
+        putText(record, m.model, MODEL_BYTES);
+        putText(record, m.employee, EMPLOYEE_BYTES);
+        record.putInt(m.fromVersion);
+        record.putInt(m.toVersion);
+        record.putInt(m.row);
+        record.flip();
+        long pos = HEADER_SIZE + records * recordSize;
+        while (record.hasRemaining()) {
+            pos += channel.write(record, pos);
+        }
+        records++;
+    }
+
+    // Called after the movements have been folded into a snapshot
+    public synchronized void reset() throws IOException {
+        open();
+        channel.truncate(HEADER_SIZE);
+        writeHeader();
+        channel.force(true);
+        records = 0;
+    }
+
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    // ================= HELPERS =================
+    private void open() throws IOException {
+        if (channel != null) return;
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() < HEADER_SIZE) {
+            writeHeader();
+            channel.truncate(HEADER_SIZE);
+            records = 0;
+        } else {
+            ByteBuffer head = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(head, 0);
+            head.flip();
+            int magic = head.getInt();
+            int size = head.getInt();
+            if (magic == MAGIC && size == RECORD_SIZE) {
+                recordSize = RECORD_SIZE;
+            } else if (magic == VERSIONED_MAGIC && size == VERSIONED_RECORD_SIZE) {
+                recordSize = VERSIONED_RECORD_SIZE;
+            } else if (magic == LEGACY_MAGIC && size == LEGACY_RECORD_SIZE) {
+                recordSize = LEGACY_RECORD_SIZE;
+            } else {
+                channel.close();
+                channel = null;
+                throw new IOException("Unrecognised stock journal " + file);
+            }
+            records = (channel.size() - HEADER_SIZE) / recordSize;
+            if (records == 0 && recordSize != RECORD_SIZE) writeHeader();
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(HEADER_SIZE);
+        head.putInt(MAGIC).putInt(RECORD_SIZE).flip();
+        channel.write(head, 0);
+        recordSize = RECORD_SIZE;
+    }
+
+    private static Movement decode(ByteBuffer buf, int size) {
+        long time = buf.getLong();
+        int from = buf.getShort();
+        int to = buf.getShort();
+        int qty = buf.getInt();
+        int fromBalance = buf.getInt();
+        int toBalance = buf.getInt();
+        String model = getText(buf, MODEL_BYTES);
+        String employee = getText(buf, EMPLOYEE_BYTES);
+        int fromVersion = size > LEGACY_RECORD_SIZE ? buf.getInt() : 0;
+        int toVersion = size > LEGACY_RECORD_SIZE ? buf.getInt() : 0;
+        int row = size > VERSIONED_RECORD_SIZE ? buf.getInt() : -1;
+        return new Movement(time, row, model, from, to, qty, fromBalance, fromVersion, toBalance, toVersion, employee);
+    }
+
+    // True if recorded is what the journal keeps of this model name (all of it, or its first MODEL_BYTES)
+    public static boolean recordedAs(String model, String recorded) {
+        byte[] b = model.getBytes(StandardCharsets.UTF_8);
+        return new String(b, 0, cut(b, MODEL_BYTES), StandardCharsets.UTF_8).equals(recorded);
+    }
+
+    // Fixed-width text field: UTF-8 bytes, cut to size on a character boundary, zero padded
+    private static void putText(ByteBuffer buf, String s, int size) {
+        byte[] b = (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+        int n = cut(b, size);
+        buf.put(b, 0, n);
+        for (int i = n; i < size; i++) buf.put((byte) 0);
+    }
+
+    private static int cut(byte[] b, int size) {
+        if (b.length <= size) return b.length;
+        int n = size;
+        while (n > 0 && (b[n] & 0xC0) == 0x80) n--; // not inside a multi-byte character
+        return n;
+    }
+
+    private static String getText(ByteBuffer buf, int size) {
+        byte[] b = new byte[size];
+        buf.get(b);
+        int n = 0;
+        while (n < size && b[n] != 0) n++;
+        return new String(b, 0, n, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,16 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+// Told about every change to a StockStore cell, on the thread that made it, so keep it quick.
+// stockLoaded follows a (re)load, when models and outlets may have changed.
+public interface StockListener {
+    void stockChanged(StockStore store, int row, int col, int quantity);
+    void stockLoaded(StockStore store);
+}
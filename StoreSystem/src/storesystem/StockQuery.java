@@ -0,0 +1,209 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Questions over the whole model x outlet stock matrix, answered from StockStore in memory:
+//   StockQuery.on(store).models("DW2300-1").where(">= 5").run()   outlets with at least 5
+//   StockQuery.on(store).run()                                     every model, chain total
+//   StockQuery.on(store).outlets("C60,C61").where("< 2").run()     low cells at two outlets
+// Only the chosen outlet columns are read (projection) and the quantity test is applied
+// while scanning (pushdown), so a row without a matching cell is never copied out.
+public class StockQuery {
+    private final StockStore store;
+    private final List<Integer> rows = new ArrayList<>(); // exact models asked for
+    private final List<String> prefixes = new ArrayList<>();
+    private final List<Integer> cols = new ArrayList<>();
+    private boolean modelsGiven = false, outletsGiven = false;
+    private int min = Integer.MIN_VALUE, max = Integer.MAX_VALUE; // cells kept: min <= qty <= max
+    private boolean filtered = false;
+
+    private StockQuery(StockStore store) {
+        this.store = store;
+    }
+
+    public static StockQuery on(StockStore store) {
+        return new StockQuery(store);
+    }
+
+    // ================= BUILD =================
+    // "DW2300-1", "DW2300-1,DW2300-2" or "DW*"; blank for every model; unknown models match nothing
+    public StockQuery models(String spec) {
+        for (String m : spec.split(",")) {
+            m = m.trim();
+            if (m.isEmpty()) continue;
+            modelsGiven = true;
+            if (m.endsWith("*")) {
+                prefixes.add(m.substring(0, m.length() - 1));
+            } else {
+                int row = store.findModel(m);
+                if (row != -1) rows.add(row);
+            }
+        }
+        return this;
+    }
+
+    // Outlet codes to show, "C60,C61"; blank for every outlet
+    public StockQuery outlets(String spec) {
+        for (String o : spec.split(",")) {
+            o = o.trim();
+            if (o.isEmpty()) continue;
+            outletsGiven = true;
+            int col = store.findOutlet(o);
+            if (col != -1 && !cols.contains(col)) cols.add(col);
+        }
+        return this;
+    }
+
+    // Quantity test on each cell: ">= 5", "> 0", "< 3", "<= 2" or "= 0"; blank for none
+    public StockQuery where(String condition) {
+        String c = condition.replace(" ", "");
+        if (c.isEmpty()) return this;
+        int at = c.startsWith(">=") || c.startsWith("<=") ? 2 : 1;
+        int n;
+        try {
+            n = Integer.parseInt(c.substring(at));
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Not a stock condition: " + condition);
+        }
+        switch (c.substring(0, at)) {
+            case ">=" -> atLeast(n);
+            case ">" -> { if (n == Integer.MAX_VALUE) none(); else atLeast(n + 1); }
+            case "<=" -> atMost(n);
+            case "<" -> { if (n == Integer.MIN_VALUE) none(); else atMost(n - 1); }
+            case "=" -> { atLeast(n); atMost(n); }
+            default -> throw new IllegalArgumentException("Not a stock condition: " + condition);
+        }
+        return this;
+    }
+
+    public StockQuery atLeast(int n) {
+        min = Math.max(min, n);
+        filtered = true;
+        return this;
+    }
+
+    public StockQuery atMost(int n) {
+        max = Math.min(max, n);
+        filtered = true;
+        return this;
+    }
+
+    // "> 2147483647" or "< -2147483648": no quantity can pass, so the range is left empty
+    private void none() {
+        min = Integer.MAX_VALUE;
+        max = Integer.MIN_VALUE;
+        filtered = true;
+    }
+
+    // ================= RUN =================
+    public Result run() {
+        int[] c = outletsGiven ? cols.stream().mapToInt(Integer::intValue).toArray() : allOutlets();
+        Result r = new Result(store, c, filtered);
+        if (c.length == 0) return r; // only unknown outlets asked for
+        if (!modelsGiven) {
+            for (int row = 0; row < store.getModelCount(); row++) scan(r, row, c);
+        } else {
+            boolean[] seen = prefixes.isEmpty() ? null : new boolean[store.getModelCount()]; // only needed for prefixes
+            for (int i = 0; i < rows.size(); i++) {
+                int row = rows.get(i);
+                if (rows.indexOf(row) < i) continue; // named twice
+                scan(r, row, c);
+                if (seen != null) seen[row] = true;
+            }
+            for (String p : prefixes) {
+                for (int row = 0; row < store.getModelCount(); row++) {
+                    if (!seen[row] && store.getModel(row).regionMatches(true, 0, p, 0, p.length())) {
+                        scan(r, row, c);
+                        seen[row] = true;
+                    }
+                }
+            }
+        }
+        return r;
+    }
+
+    private int[] allOutlets() {
+        int[] c = new int[store.getOutletCount()];
+        for (int i = 0; i < c.length; i++) c[i] = i;
+        return c;
+    }
+
+    // Reads the projected cells of one model into the scratch row; kept only if a cell passes
+    private void scan(Result r, int row, int[] c) {
+        int[] q = r.scratch;
+        boolean hit = !filtered;
+        long total = 0;
+        for (int j = 0; j < c.length; j++) {
+            int qty = store.getQuantity(row, c[j]);
+            q[j] = qty;
+            total += qty;
+            if (qty >= min && qty <= max) hit = true;
+        }
+        if (hit) r.add(row, total, min, max);
+    }
+
+    // ================= RESULT =================
+    // The models kept, each with the quantities of the projected outlets and their total
+    public static class Result {
+        private final StockStore store;
+        private final int[] cols;
+        private final boolean filtered;
+        private final int[] scratch;
+        private int size = 0, matches = 0;
+        private int[] rows = new int[16];
+        private long[] totals = new long[16];
+        private int[] quantities; // size x cols.length
+        private boolean[] passed; // same layout, cells that met the condition
+        private long chainTotal = 0;
+
+        private Result(StockStore store, int[] cols, boolean filtered) {
+            this.store = store;
+            this.cols = cols;
+            this.filtered = filtered;
+            this.scratch = new int[cols.length];
+            this.quantities = new int[16 * cols.length];
+            this.passed = new boolean[16 * cols.length];
+        }
+
+        private void add(int row, long total, int min, int max) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+                totals = Arrays.copyOf(totals, size * 2);
+                quantities = Arrays.copyOf(quantities, size * 2 * cols.length);
+                passed = Arrays.copyOf(passed, size * 2 * cols.length);
+            }
+            int at = size * cols.length;
+            System.arraycopy(scratch, 0, quantities, at, cols.length);
+            for (int j = 0; j < cols.length; j++) {
+                boolean ok = scratch[j] >= min && scratch[j] <= max;
+                passed[at + j] = ok;
+                if (ok) matches++;
+            }
+            rows[size] = row;
+            totals[size++] = total;
+            chainTotal += total;
+        }
+
+        public int size() { return size; }
+        public int getOutletCount() { return cols.length; }
+        public String getOutlet(int j) { return store.getOutlet(cols[j]); }
+        public String getModel(int i) { return store.getModel(rows[i]); }
+        public int getModelId(int i) { return rows[i]; }
+        public int getQuantity(int i, int j) { return quantities[i * cols.length + j]; }
+        public long getTotal(int i) { return totals[i]; }        // over the projected outlets
+        public long getChainTotal() { return chainTotal; }       // every model kept, projected outlets
+        public boolean isFiltered() { return filtered; }
+        public boolean matches(int i, int j) { return passed[i * cols.length + j]; }
+        public int getMatchCount() { return matches; }           // cells that met the condition
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.IOException;
+
+// Where StockStore keeps its snapshot: model.csv (CsvStockRepository) or the key-value store
+// (KvStockRepository), see StorageBackend. The journal of changes since the snapshot is a file
+// next to it either way.
+public interface StockRepository {
+    interface Reader {
+        void header(String modelTitle, String priceTitle, String[] outlets);
+
+        // quantities holds one entry per outlet and is only valid during the call
+        void model(String model, String priceText, long priceCents, int[] quantities);
+    }
+
+    // Reads the snapshot in row order; false if none has been saved yet
+    boolean load(Reader r) throws IOException;
+
+    // Saves the whole table (quantities row-major) and has it on disk when this returns.
+    // changed[row] is false for rows the last save or load left as they are.
+    void save(String[] header, String[] outlets, String[] models, String[] priceText, int[] quantities,
+              boolean[] changed) throws IOException;
+}
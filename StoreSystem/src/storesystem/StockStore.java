@@ -0,0 +1,439 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Shared copy of model.csv (or another StockRepository) kept in memory: one row per model, one column
+// per outlet. Every change is appended to a journal first and folded back into the snapshot by a
+// background compactor.
+// Each model x outlet cell is a lock-free counter (compare-and-set), so tills never oversell or lose
+// an update; models and outlets themselves only change in load().
+// Stock held by an open checkout is off the shelf in memory but never reaches the journal or
+// model.csv until the sale is committed (see SalesLedger), so a crash mid-checkout loses nothing.
+public class StockStore {
+    private final StockRepository repository;
+    private final StockJournal journal;
+
+    private String[] header = new String[0];   // first two columns (Model, Price) kept as-is
+    private String[] outlets = new String[0];  // outlet codes from column 2 onwards
+    private String[] models = new String[0];
+    private long[] prices = new long[0];       // cents
+    private String[] priceText = new String[0]; // written back exactly as read
+    // row-major (model * outlets.length + outlet); high 32 bits = change count of the cell, low 32 bits = quantity
+    private AtomicLongArray cells = new AtomicLongArray(0);
+    private AtomicIntegerArray held = new AtomicIntegerArray(0); // per cell, units held by open checkouts
+    private int[] saved = new int[0]; // per cell, quantity in the snapshot as last loaded or written
+
+    private final Map<String, Integer> modelIndex = new HashMap<>();   // lowercase model -> row
+    private final Map<String, Integer> outletIndex = new HashMap<>();  // lowercase code -> column
+
+    // Movements share the read side; load / compact take the write side for a consistent snapshot
+    private final ReentrantReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+
+    private ScheduledExecutorService compactor;
+    private final List<StockListener> listeners = new CopyOnWriteArrayList<>();
+    private SnapshotHook hook;
+
+    // Run by compact() once the new snapshot is on disk and before the journal is emptied
+    public interface SnapshotHook {
+        void snapshotWritten() throws IOException;
+    }
+
+    // Work that logs held stock somewhere else first, see commitHeld
+    public interface HeldCommit<T> {
+        T run(List<StockJournal.Movement> settled) throws IOException;
+    }
+
+    public StockStore(File file) {
+        this(new CsvStockRepository(file), new File(file.getPath() + ".journal"));
+    }
+
+    public StockStore(StockRepository repository, File journal) {
+        this.repository = repository;
+        this.journal = new StockJournal(journal);
+    }
+
+    // ================= LOAD =================
+    // Snapshot (model.csv) plus whatever the journal recorded after it
+    public void load() throws IOException {
+        snapshotLock.writeLock().lock();
+        try {
+            if (!loadSnapshot()) return;
+            long[] applied = new long[cells.length()]; // newest cell version replayed so far
+            long replayed = journal.replay(m -> apply(m, applied));
+            if (replayed > 0 && hook == null) {
+                compact(); // with a hook, its owner compacts once it has recovered its own log
+            }
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+        for (StockListener l : listeners) l.stockLoaded(this);
+    }
+
+    public void addListener(StockListener l) {
+        listeners.add(l);
+    }
+
+    public void setSnapshotHook(SnapshotHook hook) {
+        this.hook = hook;
+    }
+
+    // False if there is no snapshot yet
+    private boolean loadSnapshot() throws IOException {
+        modelIndex.clear();
+        outletIndex.clear();
+        header = new String[0];
+        outlets = new String[0];
+        int[] rows = {0};
+        int[][] grid = {new int[0]}; // quantities, row-major, grown as rows are read
+        models = new String[16];
+        prices = new long[16];
+        priceText = new String[16];
+
+        boolean found = repository.load(new StockRepository.Reader() {
+            @Override
+            public void header(String modelTitle, String priceTitle, String[] codes) {
+                header = new String[] { modelTitle, priceTitle };
+                outlets = codes;
+                for (int i = 0; i < outlets.length; i++) {
+                    outletIndex.put(outlets[i].toLowerCase(), i);
+                }
+            }
+
+            @Override
+            public void model(String model, String text, long cents, int[] quantities) {
+                int r = rows[0]++;
+                if (r == models.length) {
+                    models = Arrays.copyOf(models, r * 2);
+                    prices = Arrays.copyOf(prices, r * 2);
+                    priceText = Arrays.copyOf(priceText, r * 2);
+                }
+                models[r] = model;
+                priceText[r] = text;
+                prices[r] = cents;
+                int n = outlets.length;
+                if ((r + 1) * n > grid[0].length) grid[0] = Arrays.copyOf(grid[0], Math.max(16, (r + 1) * n * 2));
+                System.arraycopy(quantities, 0, grid[0], r * n, n);
+                modelIndex.put(model.toLowerCase(), r);
+            }
+        });
+
+        int count = rows[0];
+        models = Arrays.copyOf(models, count);
+        prices = Arrays.copyOf(prices, count);
+        priceText = Arrays.copyOf(priceText, count);
+        cells = new AtomicLongArray(count * outlets.length);
+        held = new AtomicIntegerArray(count * outlets.length);
+        saved = Arrays.copyOf(grid[0], cells.length());
+        for (int i = 0; i < cells.length(); i++) {
+            cells.set(i, grid[0][i]);
+        }
+        return found;
+    }
+
+    // ================= LOOKUP =================
+    public int findModel(String model) {
+        return modelIndex.getOrDefault(model.trim().toLowerCase(), -1);
+    }
+
+    public int findOutlet(String code) {
+        return outletIndex.getOrDefault(code.trim().toLowerCase(), -1);
+    }
+
+    public int getModelCount() { return models.length; }
+    public int getOutletCount() { return outlets.length; }
+    public String getModel(int row) { return models[row]; }
+    public long getPriceCents(int row) { return prices[row]; }
+    public String getOutlet(int col) { return outlets[col]; }
+
+    public int getQuantity(int row, int col) {
+        return quantity(cells.get(row * outlets.length + col));
+    }
+
+    // Every quantity in one array, row-major (row * getOutletCount() + col), e.g. to compare with a count
+    public int[] quantities() {
+        int[] q = new int[cells.length()];
+        for (int i = 0; i < q.length; i++) q[i] = quantity(cells.get(i));
+        return q;
+    }
+
+    // ================= UPDATE =================
+    // Moves qty of a model between outlet columns, -1 means outside the chain (e.g. HQ supplier, customer).
+    // The source is decremented with compare-and-set, so it can never go below zero.
+    public boolean transfer(int row, int from, int to, int qty, String employee) throws IOException {
+        snapshotLock.readLock().lock();
+        try {
+            long fromCell = 0, toCell = 0;
+            if (from != -1) {
+                int i = row * outlets.length + from;
+                long cur;
+                do {
+                    cur = cells.get(i);
+                    if (quantity(cur) < qty) return false;
+                    fromCell = next(cur, quantity(cur) - qty);
+                } while (!cells.compareAndSet(i, cur, fromCell));
+            }
+            if (to != -1) {
+                int i = row * outlets.length + to;
+                long cur;
+                do {
+                    cur = cells.get(i);
+                    toCell = next(cur, quantity(cur) + qty);
+                } while (!cells.compareAndSet(i, cur, toCell));
+            }
+            log(row, from, to, qty, employee);
+            for (StockListener l : listeners) {
+                if (from != -1) l.stockChanged(this, row, from, quantity(fromCell));
+                if (to != -1) l.stockChanged(this, row, to, quantity(toCell));
+            }
+            return true;
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    // Sets a count directly (stock edit), journalled as an adjustment from/to outside the chain
+    public void setQuantity(int row, int col, int qty, String employee) throws IOException {
+        snapshotLock.readLock().lock();
+        try {
+            int i = row * outlets.length + col;
+            long cur, set;
+            do {
+                cur = cells.get(i);
+                if (quantity(cur) == qty) return;
+                set = next(cur, qty);
+            } while (!cells.compareAndSet(i, cur, set));
+            int diff = qty - quantity(cur);
+            if (diff > 0) {
+                log(row, -1, col, diff, employee);
+            } else {
+                log(row, col, -1, -diff, employee);
+            }
+            for (StockListener l : listeners) l.stockChanged(this, row, col, qty);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    // Journal appends from different tills can land out of order; the cell versions sort that out on replay.
+    // Balances are read under the journal lock, where holds change, and include held stock.
+    private void log(int row, int from, int to, int qty, String employee) throws IOException {
+        synchronized (journal) {
+            long f = from == -1 ? 0 : cells.get(row * outlets.length + from);
+            long t = to == -1 ? 0 : cells.get(row * outlets.length + to);
+            journal.append(new StockJournal.Movement(System.currentTimeMillis(), row, models[row], from, to, qty,
+                    onDisk(row, from, f), version(f), onDisk(row, to, t), version(t), employee));
+        }
+    }
+
+    private int onDisk(int row, int col, long cell) {
+        return col == -1 ? 0 : quantity(cell) + held.get(row * outlets.length + col);
+    }
+
+    // ================= HOLD =================
+    // Takes qty off the shelf for an open checkout, in memory only; false if not that much is on hand
+    public boolean hold(int row, int col, int qty) {
+        snapshotLock.readLock().lock();
+        try {
+            int i = row * outlets.length + col;
+            long next;
+            synchronized (journal) {
+                long cur;
+                do {
+                    cur = cells.get(i);
+                    if (quantity(cur) < qty) return false;
+                    next = next(cur, quantity(cur) - qty);
+                } while (!cells.compareAndSet(i, cur, next));
+                held.addAndGet(i, qty);
+            }
+            for (StockListener l : listeners) l.stockChanged(this, row, col, quantity(next));
+            return true;
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    // Puts held stock back on the shelf (checkout cancelled)
+    public void unhold(int row, int col, int qty) {
+        snapshotLock.readLock().lock();
+        try {
+            int i = row * outlets.length + col;
+            long next;
+            synchronized (journal) {
+                long cur;
+                do {
+                    cur = cells.get(i);
+                    next = next(cur, quantity(cur) + qty);
+                } while (!cells.compareAndSet(i, cur, next));
+                held.addAndGet(i, -qty);
+            }
+            for (StockListener l : listeners) l.stockChanged(this, row, col, quantity(next));
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    // Reserves qty of a model at one outlet if (and only if) that much is on hand; the same as
+    // hold, so it is sold with commitHeld or given back with release
+    public boolean tryReserve(int row, int outlet, int qty) {
+        return hold(row, outlet, qty);
+    }
+
+    // Gives back stock taken by tryReserve that was not sold after all
+    public void release(int row, int outlet, int qty) {
+        unhold(row, outlet, qty);
+    }
+
+    // Sells held stock: the movements (cell i: rows[i], cols[i], qty[i] to the customer) are handed to
+    // commit, which logs them durably elsewhere, and journalled here after it returns. No snapshot is
+    // taken in between. If commit fails the stock is held again, for the caller to unhold.
+    public <T> T commitHeld(int[] rows, int[] cols, int[] qty, String employee, HeldCommit<T> commit) throws IOException {
+        snapshotLock.readLock().lock();
+        try {
+            List<StockJournal.Movement> settled = new ArrayList<>(rows.length);
+            for (int k = 0; k < rows.length; k++) {
+                settled.add(settle(rows[k], cols[k], qty[k], -qty[k], employee));
+            }
+            T result;
+            try {
+                result = commit.run(settled);
+            } catch (IOException | RuntimeException e) {
+                for (int k = 0; k < rows.length; k++) settle(rows[k], cols[k], qty[k], qty[k], employee);
+                throw e;
+            }
+            for (StockJournal.Movement m : settled) journal.append(m);
+            return result;
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    // Moves qty between held and sold without changing the shelf; a new version marks the change
+    private StockJournal.Movement settle(int row, int col, int qty, int heldChange, String employee) {
+        int i = row * outlets.length + col;
+        synchronized (journal) {
+            long cur, next;
+            do {
+                cur = cells.get(i);
+                next = next(cur, quantity(cur));
+            } while (!cells.compareAndSet(i, cur, next));
+            held.addAndGet(i, heldChange);
+            return new StockJournal.Movement(System.currentTimeMillis(), row, models[row], col, -1, qty,
+                    onDisk(row, col, next), version(next), 0, 0, employee);
+        }
+    }
+
+    // Replays a sale's movement from SalesLedger after a crash: applied (and journalled) only if the
+    // cell has not seen that change or a later one. True if it was applied.
+    public boolean recover(StockJournal.Movement m) throws IOException {
+        snapshotLock.readLock().lock();
+        try {
+            int row = findModel(m.model);
+            if (row == -1 || m.from < 0 || m.from >= outlets.length) return false;
+            int i = row * outlets.length + m.from;
+            int balance;
+            synchronized (journal) {
+                long cur = cells.get(i);
+                if (version(cur) >= m.fromVersion) return false;
+                balance = m.fromBalance - held.get(i);
+                cells.set(i, ((long) m.fromVersion << 32) | (balance & 0xFFFFFFFFL));
+                journal.append(m.atRow(row));
+            }
+            for (StockListener l : listeners) l.stockChanged(this, row, m.from, balance);
+            return true;
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    // Replay sets the recorded balances, newest version per cell wins, so order and repeats do no harm
+    // The recorded row comes first: the journal only keeps the start of a long model name
+    private void apply(StockJournal.Movement m, long[] applied) {
+        int row = m.row >= 0 && m.row < models.length && StockJournal.recordedAs(models[m.row], m.model) ? m.row : findModel(m.model);
+        if (row == -1) {
+            System.out.println("Warning: journal entry for unknown model " + m.model + " skipped");
+            return;
+        }
+        if (m.from >= 0 && m.from < outlets.length) replayCell(row * outlets.length + m.from, m.fromBalance, m.fromVersion, applied);
+        if (m.to >= 0 && m.to < outlets.length) replayCell(row * outlets.length + m.to, m.toBalance, m.toVersion, applied);
+    }
+
+    private void replayCell(int i, int balance, int version, long[] applied) {
+        if (version != 0 && version < applied[i]) return; // an older change logged after a newer one
+        applied[i] = version;
+        cells.set(i, ((long) version << 32) | (balance & 0xFFFFFFFFL));
+    }
+
+    private static int quantity(long cell) { return (int) cell; }
+    private static int version(long cell) { return (int) (cell >>> 32); }
+    private static long next(long cell, int qty) {
+        return ((long) (version(cell) + 1) << 32) | (qty & 0xFFFFFFFFL);
+    }
+
+    // ================= COMPACT =================
+    // Saves a fresh snapshot (held stock counted as on the shelf), then empties the journal;
+    // no movement runs meanwhile
+    public void compact() throws IOException {
+        snapshotLock.writeLock().lock();
+        try {
+            writeSnapshot();
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+    }
+
+    private void writeSnapshot() throws IOException {
+        if (journal.size() == 0) return;
+        int n = outlets.length;
+        int[] q = new int[cells.length()];
+        boolean[] changed = new boolean[models.length];
+        for (int i = 0; i < q.length; i++) {
+            q[i] = quantity(cells.get(i)) + held.get(i);
+            if (q[i] != saved[i]) changed[i / n] = true;
+        }
+        repository.save(header, outlets, models, priceText, q, changed); // on disk before the journal goes
+        saved = q;
+        if (hook != null) hook.snapshotWritten();
+        journal.reset();
+    }
+
+    // Folds the journal into the snapshot in the background instead of saving it on every update
+    public synchronized void startCompactor(long intervalMillis) {
+        if (compactor != null) return;
+        compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stock-compactor");
+            t.setDaemon(true);
+            return t;
+        });
+        compactor.scheduleWithFixedDelay(this::compactQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::compactQuietly, "stock-compactor-exit"));
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException e) {
+            System.out.println("Error saving stock: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.File;
+import java.io.IOException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// The repositories the stores are built on, chosen by storage.backend in store.properties:
+//   csv  the files each store has always used (default)
+//   kv   one KeyValueStore file for employees, stock, sales and attendance
+// The stock journal, the sales ledger and the sales symbol tables stay files with either.
+// The first time the kv store is opened it is filled from the csv files, so switching
+// keeps the data; switching back is not automatic (see copyFrom).
+public class StorageBackend {
+    private static final String COPIED = "storage/copied"; // written last by copyFrom
+
+    private final EmployeeRepository employees;
+    private final AttendanceRepository attendance;
+    private final StockRepository stock;
+    private final SalesRepository sales;
+    private final KeyValueStore kv; // null for csv
+
+    private StorageBackend(EmployeeRepository employees, AttendanceRepository attendance, StockRepository stock,
+                           SalesRepository sales, KeyValueStore kv) {
+        this.employees = employees;
+        this.attendance = attendance;
+        this.stock = stock;
+        this.sales = sales;
+        this.kv = kv;
+    }
+
+    public static StorageBackend csv(File employeeFile, File attendanceDir, File stockFile, File salesDir) {
+        return new StorageBackend(new CsvEmployeeRepository(employeeFile), new CsvAttendanceRepository(attendanceDir),
+                new CsvStockRepository(stockFile), new SegmentSalesRepository(salesDir), null);
+    }
+
+    // Opens (or creates) the kv store in file; filled from the given backend if it has not been yet
+    public static StorageBackend kv(File file, StorageBackend from) throws IOException {
+        KeyValueStore kv = new KeyValueStore(file);
+        kv.open();
+        StorageBackend b = new StorageBackend(new KvEmployeeRepository(kv), new KvAttendanceRepository(kv),
+                new KvStockRepository(kv), new KvSalesRepository(kv), kv);
+        try {
+            if (!kv.contains(COPIED)) b.copyFrom(from);
+        } catch (IOException e) {
+            kv.close();
+            throw e;
+        }
+        return b;
+    }
+
+    // ================= COPY =================
+    // Everything in from, written into this kv store. Anything a copy cut short left behind
+    // is dropped first; the marker goes in last, so an interrupted copy starts over next time.
+    private void copyFrom(StorageBackend from) throws IOException {
+        KeyValueStore.Batch clear = new KeyValueStore.Batch();
+        for (String k : kv.keys("", String.valueOf(Character.MAX_VALUE))) clear.delete(k);
+        kv.write(clear);
+
+        List<Employee> staff = new ArrayList<>();
+        from.employees.load((id, name, role, password) -> staff.add(new Employee(id, name, role, password, "")));
+        if (!staff.isEmpty()) employees.saveAll(staff);
+
+        for (YearMonth ym : from.attendance.months()) {
+            List<Attendance> month = new ArrayList<>();
+            from.attendance.read(ym, month::add);
+            attendance.appendAll(month);
+        }
+
+        from.sales.load((key, rows, count, recordSize) -> sales.rewrite(key, rows, recordSize));
+
+        copyStock(from.stock);
+        kv.put(COPIED, new byte[0]);
+        kv.sync();
+    }
+
+    private void copyStock(StockRepository from) throws IOException {
+        String[][] head = new String[2][];
+        List<String> models = new ArrayList<>(), prices = new ArrayList<>();
+        List<int[]> rows = new ArrayList<>();
+        boolean found = from.load(new StockRepository.Reader() {
+            @Override
+            public void header(String modelTitle, String priceTitle, String[] outlets) {
+                head[0] = new String[] { modelTitle, priceTitle };
+                head[1] = outlets;
+            }
+
+            @Override
+            public void model(String model, String priceText, long priceCents, int[] quantities) {
+                models.add(model);
+                prices.add(priceText);
+                rows.add(quantities.clone());
+            }
+        });
+        if (!found) return;
+        int outlets = head[1].length;
+        int[] q = new int[models.size() * outlets];
+        for (int r = 0; r < rows.size(); r++) System.arraycopy(rows.get(r), 0, q, r * outlets, outlets);
+        boolean[] changed = new boolean[models.size()];
+        Arrays.fill(changed, true);
+        stock.save(head[0], head[1], models.toArray(new String[0]), prices.toArray(new String[0]), q, changed);
+    }
+
+    public EmployeeRepository employees() { return employees; }
+    public AttendanceRepository attendance() { return attendance; }
+    public StockRepository stock() { return stock; }
+    public SalesRepository sales() { return sales; }
+    public boolean isKeyValue() { return kv != null; }
+
+    // Closes the kv store, if any; the stores close their own files
+    public void close() throws IOException {
+        if (kv != null) kv.close();
+    }
+}
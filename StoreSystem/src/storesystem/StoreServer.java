@@ -0,0 +1,69 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+// Server mode: one JVM holds the store data and serves many terminals (telnet / nc) on this machine
+public class StoreServer {
+    private final int port;
+    private final Consumer<TerminalSession> terminal;
+
+    public StoreServer(int port, Consumer<TerminalSession> terminal) {
+        this.port = port;
+        this.terminal = terminal;
+    }
+
+    public void serve() throws IOException {
+        SessionConsole.install();
+        ExecutorService pool = newSessionPool();
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            System.out.println("Store server listening on " + server.getLocalSocketAddress());
+            while (true) {
+                Socket socket = server.accept();
+                pool.execute(() -> run(socket));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void run(Socket socket) {
+        try (socket;
+             Scanner in = new Scanner(socket.getInputStream());
+             PrintStream out = new PrintStream(socket.getOutputStream(), true)) {
+            SessionConsole.attach(out);
+            terminal.accept(new TerminalSession(in, out));
+        } catch (NoSuchElementException | IllegalStateException e) {
+            // terminal disconnected
+        } catch (IOException e) {
+            System.err.println("Session error: " + e.getMessage());
+        } finally {
+            SessionConsole.attach(null);
+        }
+    }
+
+    // A virtual thread per terminal when the JDK has them (21+), otherwise a normal thread each
+    private static ExecutorService newSessionPool() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Dictionary of repeated values (model, customer, employee, method) stored as small int ids.
+// Line n of the file is the value with id n, new values are appended.
+// Lookup ignores case: "dw2300-1" gets the id of "DW2300-1", the first spelling seen is kept.
+// Older files may hold the same value in two spellings; canonical() maps both to the first.
+// Appends are buffered; call flush() before writing anything that refers to the new ids.
+public class SymbolTable {
+    private final File file;
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> ids = new HashMap<>(); // lowercase value -> first id
+    private int[] canonical = new int[16]; // id -> first id with the same lowercase value
+    private PrintWriter out; // kept open for appends, opened on first new value
+    private FileOutputStream stream; // under out, for sync()
+    private boolean dirty = false;
+
+    public SymbolTable(File file) {
+        this.file = file;
+    }
+
+    public synchronized void load() throws IOException {
+        close();
+        names.clear();
+        ids.clear();
+        if (!file.exists()) return;
+        try (BufferedReader br = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                Integer first = ids.putIfAbsent(fold(line), names.size());
+                add(line, first == null ? names.size() : first);
+            }
+        }
+    }
+
+    // Returns the id of value, adding it to the table (and file) if new
+    public synchronized int intern(String value) throws IOException {
+        String v = value == null ? "" : value.replace('\n', ' ').replace('\r', ' ');
+        String key = fold(v);
+        Integer id = ids.get(key);
+        if (id != null) return id;
+        if (out == null) {
+            stream = new FileOutputStream(file, true);
+            out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8)));
+        }
+        out.println(v);
+        dirty = true;
+        ids.put(key, names.size());
+        add(v, names.size());
+        return names.size() - 1;
+    }
+
+    // Id of an existing value in any case, -1 if never seen
+    public synchronized int find(String value) {
+        return value == null ? -1 : ids.getOrDefault(fold(value), -1);
+    }
+
+    // Same id for every spelling of a value, so ids can be compared with ==
+    public synchronized int canonical(int id) {
+        return canonical[id];
+    }
+
+    public synchronized String name(int id) {
+        return names.get(id);
+    }
+
+    public synchronized int size() {
+        return names.size();
+    }
+
+    private void add(String value, int first) {
+        if (names.size() == canonical.length) canonical = Arrays.copyOf(canonical, canonical.length * 2);
+        canonical[names.size()] = first;
+        names.add(value);
+    }
+
+    private static String fold(String value) {
+        return value.toLowerCase(Locale.ROOT); // same instance when already lowercase
+    }
+
+    // Pushes buffered new values to the file
+    public synchronized void flush() throws IOException {
+        if (!dirty) return;
+        dirty = false;
+        if (out.checkError()) throw new IOException("Error writing " + file); // checkError also flushes
+    }
+
+    // flush() and force the file to disk
+    public synchronized void sync() throws IOException {
+        flush();
+        if (stream != null) stream.getFD().sync();
+    }
+
+    public synchronized void close() {
+        if (out != null) {
+            out.close();
+            out = null;
+            stream = null;
+        }
+    }
+}
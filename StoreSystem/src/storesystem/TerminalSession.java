@@ -0,0 +1,36 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+// One terminal using the system: its input, output, logged in user and outlet stock view
+public class TerminalSession {
+    private final Scanner in;
+    private final PrintStream out;
+    private Employee user = null; //set as empty first
+    private final List<Stock> stocks = new ArrayList<>();
+    private boolean closed = false;
+
+    public TerminalSession(Scanner in, PrintStream out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    public Scanner getScanner() { return in; }
+    public PrintStream getOut() { return out; }
+    public Employee getUser() { return user; }
+    public void setUser(Employee user) { this.user = user; }
+    public List<Stock> getStocks() { return stocks; }
+    public boolean isClosed() { return closed; }
+    public void close() { closed = true; }
+}
@@ -0,0 +1,105 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// One checkout: the items are held from stock as they are scanned, then sold together
+// through the sales ledger by commit(), or handed back to stock by cancel()
+public class Transaction {
+    // One line of the receipt
+    public static class Item {
+        private final Stock stock;
+        private final int quantity;
+
+        Item(Stock stock, int quantity) {
+            this.stock = stock;
+            this.quantity = quantity;
+        }
+
+        public String getModel() { return stock.getModel(); }
+        public int getQuantity() { return quantity; }
+        public long getUnitCents() { return stock.getPriceCents(); }
+        public long getCents() { return Money.times(stock.getPriceCents(), quantity); }
+    }
+
+    private final String date, time, customer, employee, outlet;
+    private final List<Item> items = new ArrayList<>();
+    private String method = "";
+    private long id = 0;      // given by the sales ledger on commit
+    private boolean open = true;
+
+    public Transaction(String date, String time, String customer, String employee, String outlet) {
+        this.date = date;
+        this.time = time;
+        this.customer = customer;
+        this.employee = employee;
+        this.outlet = outlet;
+    }
+
+    // ================= STAGE =================
+    // Holds qty of the model; false if there is not enough (nothing is taken then)
+    public boolean addItem(Stock stock, int qty) {
+        if (!open) throw new IllegalStateException("Transaction already finished");
+        if (qty <= 0 || !stock.hold(qty)) return false;
+        items.add(new Item(stock, qty));
+        return true;
+    }
+
+    // Puts every held item back on the shelf
+    public void cancel() {
+        if (!open) return;
+        open = false;
+        for (Item item : items) {
+            item.stock.unhold(item.quantity);
+        }
+    }
+
+    // ================= COMMIT =================
+    // Saves all items and the stock they take as one ledger record under one transaction id.
+    // If it fails the items are still held, for cancel().
+    public long commit(SalesLedger ledger, String method) throws IOException {
+        if (!open) throw new IllegalStateException("Transaction already finished");
+        this.method = method;
+        List<SaleRecord> records = new ArrayList<>(items.size());
+        int[] rows = new int[items.size()], cols = new int[items.size()], qty = new int[items.size()];
+        for (int k = 0; k < items.size(); k++) {
+            Item item = items.get(k);
+            rows[k] = item.stock.getModelId();
+            cols[k] = item.stock.getOutletId();
+            qty[k] = item.quantity;
+            SaleRecord s = new SaleRecord(date, time, customer, item.getModel(), item.getQuantity(),
+                    item.getCents(), method, employee);
+            s.setOutlet(outlet);
+            records.add(s);
+        }
+        id = ledger.commit(records, rows, cols, qty, employee);
+        open = false;
+        return id;
+    }
+
+    public long getId() { return id; }
+    public String getDate() { return date; }
+    public String getTime() { return time; }
+    public String getCustomer() { return customer; }
+    public String getEmployee() { return employee; }
+    public String getOutlet() { return outlet; }
+    public String getMethod() { return method; }
+    public List<Item> getItems() { return Collections.unmodifiableList(items); }
+    public boolean isEmpty() { return items.isEmpty(); }
+
+    public long getSubtotalCents() {
+        long total = 0;
+        for (Item item : items) total = Math.addExact(total, item.getCents());
+        return total;
+    }
+}
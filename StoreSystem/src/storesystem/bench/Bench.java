@@ -0,0 +1,105 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem.bench;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+// Small timing harness: warms a path up, then times each call and reports
+// throughput, latency percentiles and how much memory the path allocates
+public class Bench {
+    // Operation being measured; may throw, a failure stops the run
+    public interface Op {
+        void run() throws Exception;
+    }
+
+    private final PrintStream report;
+    private final long warmupMillis, measureMillis;
+    private final int maxSamples;
+    private final com.sun.management.ThreadMXBean threads;
+
+    public Bench(PrintStream report, long warmupMillis, long measureMillis, int maxSamples) {
+        this.report = report;
+        this.warmupMillis = warmupMillis;
+        this.measureMillis = measureMillis;
+        this.maxSamples = maxSamples;
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        this.threads = bean instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) bean : null;
+    }
+
+    public void header() {
+        report.printf("%-32s %10s %10s %10s %10s %10s %10s %12s %6s%n",
+                "Benchmark", "ops/s", "p50 us", "p90 us", "p99 us", "p99.9 us", "max us", "alloc B/op", "gc");
+        report.println("-".repeat(128));
+    }
+
+    // Runs op repeatedly; System.out is muted meanwhile since the report methods print
+    public void run(String name, Op op) throws Exception {
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long[] samples = new long[maxSamples];
+        int n = 0;
+        long allocated, gcCount, elapsed;
+        try {
+            // ===== Warm up =====
+            long end = System.nanoTime() + warmupMillis * 1_000_000L;
+            do {
+                op.run();
+            } while (System.nanoTime() < end);
+
+            // ===== Measure =====
+            long gcBefore = gcCount();
+            long allocBefore = allocatedBytes();
+            long start = System.nanoTime();
+            end = start + measureMillis * 1_000_000L;
+            long t = start;
+            do {
+                op.run();
+                long now = System.nanoTime();
+                samples[n++] = now - t;
+                t = now;
+            } while (n < maxSamples && t < end);
+            elapsed = t - start;
+            allocated = allocatedBytes() - allocBefore;
+            gcCount = gcCount() - gcBefore;
+        } finally {
+            System.setOut(console);
+        }
+
+        Arrays.sort(samples, 0, n);
+        report.printf("%-32s %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f %12s %6d%n",
+                name, n * 1e9 / elapsed,
+                percentile(samples, n, 0.50), percentile(samples, n, 0.90), percentile(samples, n, 0.99),
+                percentile(samples, n, 0.999), samples[n - 1] / 1000.0,
+                allocated < 0 ? "n/a" : String.valueOf(allocated / n), gcCount);
+    }
+
+    // ================= HELPERS =================
+    private static double percentile(long[] sorted, int n, double p) {
+        int i = (int) Math.ceil(p * n) - 1;
+        return sorted[Math.max(0, Math.min(n - 1, i))] / 1000.0;
+    }
+
+    // Bytes allocated by this thread so far, -1 if the JVM cannot tell
+    private long allocatedBytes() {
+        if (threads == null || !threads.isThreadAllocatedMemorySupported()) return -1;
+        return threads.getCurrentThreadAllocatedBytes();
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+}
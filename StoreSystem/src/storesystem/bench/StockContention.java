@@ -0,0 +1,178 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem.bench;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.File;
+import java.io.PrintWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import storesystem.StockStore;
+
+// Stress check for the stock cells: many threads on a few model x outlet cells at once, doing
+// what tills and managers do (sell, hold then sell or put back, move between outlets, restock
+// from outside), while snapshots are taken underneath. Afterwards:
+//   shelf total == start + restocked - sold   (no lost or doubled updates)
+//   no cell ever seen below zero               (no oversell)
+//   model.csv + journal loaded again == memory (every change saved)
+// Exits with 1 and says why if any check fails.
+// java -cp <classes> storesystem.bench.StockContention [--threads N] [--ops per thread]
+//      [--models M] [--outlets O] [--start units per cell] [--dir path]
+public class StockContention {
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opt = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            opt.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        int threads = Integer.parseInt(opt.getOrDefault("threads", "8"));
+        int ops = Integer.parseInt(opt.getOrDefault("ops", "50000"));
+        int models = Integer.parseInt(opt.getOrDefault("models", "2"));
+        int outlets = Integer.parseInt(opt.getOrDefault("outlets", "3"));
+        int start = Integer.parseInt(opt.getOrDefault("start", "100"));
+        File dir = new File(opt.getOrDefault("dir", "bench-data"));
+
+        // ===== Setup =====
+        dir.mkdirs();
+        File file = new File(dir, "contention-model.csv");
+        new File(file.getPath() + ".journal").delete();
+        try (PrintWriter pw = new PrintWriter(file)) {
+            StringBuilder head = new StringBuilder("Model,Price");
+            for (int c = 0; c < outlets; c++) head.append(",C").append(60 + c);
+            pw.println(head);
+            for (int row = 0; row < models; row++) {
+                StringBuilder line = new StringBuilder("MODEL-" + row + ",100");
+                for (int c = 0; c < outlets; c++) line.append(',').append(start);
+                pw.println(line);
+            }
+        }
+        StockStore store = new StockStore(file);
+        store.load();
+        long initial = total(store, models, outlets);
+        System.out.println(threads + " threads x " + ops + " ops on " + models + " models x " + outlets
+                + " outlets, " + start + " units per cell");
+
+        // ===== Run =====
+        AtomicLong sold = new AtomicLong(), restocked = new AtomicLong(), rejected = new AtomicLong();
+        AtomicReference<String> failure = new AtomicReference<>();
+        CountDownLatch go = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            Random random = new Random(t);
+            String employee = "till" + t;
+            workers[t] = new Thread(() -> {
+                try {
+                    go.await();
+                    for (int i = 0; i < ops; i++) {
+                        int row = random.nextInt(models), col = random.nextInt(outlets), qty = 1 + random.nextInt(3);
+                        switch (random.nextInt(10)) {
+                            case 0, 1, 2 -> { // Stock In / Stock Out between outlets
+                                int to = random.nextInt(outlets);
+                                if (to != col && !store.transfer(row, col, to, qty, employee)) rejected.incrementAndGet();
+                            }
+                            case 3, 4 -> { // sold straight off the shelf
+                                if (store.transfer(row, col, -1, qty, employee)) sold.addAndGet(qty);
+                                else rejected.incrementAndGet();
+                            }
+                            case 5, 6 -> { // checkout: held, then sold
+                                if (store.hold(row, col, qty)) {
+                                    store.commitHeld(new int[] { row }, new int[] { col }, new int[] { qty }, employee, settled -> null);
+                                    sold.addAndGet(qty);
+                                } else {
+                                    rejected.incrementAndGet();
+                                }
+                            }
+                            case 7 -> { // checkout cancelled
+                                if (store.hold(row, col, qty)) store.unhold(row, col, qty);
+                                else rejected.incrementAndGet();
+                            }
+                            case 8 -> { // reserved and given back
+                                if (store.tryReserve(row, col, qty)) store.release(row, col, qty);
+                                else rejected.incrementAndGet();
+                            }
+                            default -> { // delivery from the supplier
+                                store.transfer(row, -1, col, qty, employee);
+                                restocked.addAndGet(qty);
+                            }
+                        }
+                    }
+                } catch (Exception e) {
+                    failure.compareAndSet(null, e.toString());
+                }
+            });
+            workers[t].start();
+        }
+
+        // Watches for negative cells and takes snapshots while the workers run
+        AtomicBoolean done = new AtomicBoolean();
+        long[] watched = {0, 0};
+        Thread watcher = new Thread(() -> {
+            try {
+                while (!done.get()) {
+                    for (int row = 0; row < models; row++) {
+                        for (int c = 0; c < outlets; c++) {
+                            int q = store.getQuantity(row, c);
+                            if (q < 0) failure.compareAndSet(null, "cell went negative: " + q);
+                        }
+                    }
+                    watched[0]++;
+                    if (watched[0] % 50 == 0) {
+                        store.compact();
+                        watched[1]++;
+                    }
+                }
+            } catch (Exception e) {
+                failure.compareAndSet(null, e.toString());
+            }
+        });
+        long began = System.nanoTime();
+        watcher.start();
+        go.countDown();
+        for (Thread w : workers) w.join();
+        double secs = (System.nanoTime() - began) / 1e9;
+        done.set(true);
+        watcher.join();
+
+        // ===== Check =====
+        String failed = failure.get();
+        long expected = initial + restocked.get() - sold.get();
+        System.out.printf("%.0f ops/s, %d sold, %d restocked, %d refused for lack of stock, %d scans, %d snapshots%n",
+                threads * (double) ops / secs, sold.get(), restocked.get(), rejected.get(), watched[0], watched[1]);
+        if (failed == null && total(store, models, outlets) != expected) {
+            failed = "units not conserved: " + total(store, models, outlets) + " on the shelves, expected " + expected;
+        }
+        StockStore reloaded = new StockStore(file);
+        reloaded.load();
+        for (int row = 0; failed == null && row < models; row++) {
+            for (int c = 0; failed == null && c < outlets; c++) {
+                int q = store.getQuantity(row, c);
+                if (q < 0) failed = "cell " + row + "/" + c + " ended negative: " + q;
+                else if (reloaded.getQuantity(row, c) != q) {
+                    failed = "cell " + row + "/" + c + " reloads as " + reloaded.getQuantity(row, c) + ", in memory " + q;
+                }
+            }
+        }
+        if (failed != null) {
+            System.out.println("FAILED: " + failed);
+            System.exit(1);
+        }
+        System.out.println("OK: " + total(store, models, outlets) + " units, none lost, none negative, saved state matches");
+    }
+
+    private static long total(StockStore store, int models, int outlets) {
+        long sum = 0;
+        for (int row = 0; row < models; row++) {
+            for (int c = 0; c < outlets; c++) sum += store.getQuantity(row, c);
+        }
+        return sum;
+    }
+}
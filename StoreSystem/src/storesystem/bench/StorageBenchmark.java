@@ -0,0 +1,124 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem.bench;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.File;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import storesystem.Attendance;
+import storesystem.AttendanceLog;
+import storesystem.EmployeeDirectory;
+import storesystem.SaleRecord;
+import storesystem.SalesStore;
+import storesystem.StockStore;
+import storesystem.StorageBackend;
+
+// The csv files against the key-value store (storage.backend=csv|kv) on the same generated
+// data: loading each store, a point update saved to disk, and a range scan.
+// java -cp <classes> storesystem.bench.StorageBenchmark [--models N] [--outlets M]
+//      [--employees E] [--sales S] [--shifts A] [--warmup ms] [--time ms] [--dir path]
+public class StorageBenchmark {
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opt = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            opt.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        int models = Integer.parseInt(opt.getOrDefault("models", "1000"));
+        int outlets = Integer.parseInt(opt.getOrDefault("outlets", "10"));
+        int employees = Integer.parseInt(opt.getOrDefault("employees", "200"));
+        int sales = Integer.parseInt(opt.getOrDefault("sales", "100000"));
+        int shifts = Integer.parseInt(opt.getOrDefault("shifts", "100000"));
+        File dir = new File(opt.getOrDefault("dir", "bench-storage"));
+        Bench bench = new Bench(System.out, Long.parseLong(opt.getOrDefault("warmup", "1000")),
+                Long.parseLong(opt.getOrDefault("time", "3000")), 1_000_000);
+
+        // ===== Data, in the csv layout =====
+        dir.mkdirs();
+        SyntheticData data = new SyntheticData(42);
+        File employeeFile = new File(dir, "employee.csv"), stockFile = new File(dir, "model.csv");
+        File attendanceDir = new File(dir, "attendance"), salesDir = new File(dir, "sales");
+        System.out.println("Data: " + models + " models x " + outlets + " outlets, " + employees + " employees, "
+                + sales + " sales, " + shifts + " shifts");
+        System.out.println("Generating in " + dir.getAbsolutePath() + " ...");
+        data.writeModels(stockFile, models, outlets);
+        data.writeEmployees(employeeFile, employees, outlets);
+        data.writeSales(salesDir, sales, models, 50000, employees).close();
+        StorageBackend csv = StorageBackend.csv(employeeFile, attendanceDir, stockFile, salesDir);
+        if (csv.attendance().months().isEmpty()) writeShifts(data, csv, shifts, employees, outlets);
+
+        File kvFile = new File(dir, "store.kv");
+        kvFile.delete();
+        long t = System.nanoTime();
+        StorageBackend kv = StorageBackend.kv(kvFile, csv);
+        System.out.printf("Copied into %s in %.1f s (%d bytes)%n", kvFile.getName(), (System.nanoTime() - t) / 1e9, kvFile.length());
+
+        for (StorageBackend b : new StorageBackend[] { csv, kv }) {
+            String name = b.isKeyValue() ? "kv" : "csv";
+            System.out.println("\nBackend: " + name);
+            bench.header();
+            benchBackend(bench, data, b, name, new File(dir, name), salesDir, models, outlets);
+        }
+        kv.close();
+    }
+
+    // A shift per employee and day until there are count of them
+    private static void writeShifts(SyntheticData data, StorageBackend b, int count, int employees, int outlets) throws Exception {
+        List<Attendance> batch = new ArrayList<>();
+        int perDay = Math.max(1, employees);
+        for (int i = 0; i < count; i++) {
+            LocalDate day = SyntheticData.FIRST_DAY.plusDays(i / perDay % SyntheticData.DAYS);
+            LocalTime in = LocalTime.of(8 + data.nextInt(3), data.nextInt(60));
+            batch.add(new Attendance(SyntheticData.employee(i % perDay), day, in, in.plusHours(8),
+                    SyntheticData.outlet(1 + data.nextInt(Math.max(1, outlets - 1)))));
+        }
+        b.attendance().appendAll(batch);
+    }
+
+    private static void benchBackend(Bench bench, SyntheticData data, StorageBackend b, String name, File journalDir,
+                                     File salesDir, int models, int outlets) throws Exception {
+        journalDir.mkdirs();
+        File journal = new File(journalDir, "model.csv.journal");
+        Map<String, String> outletNames = new HashMap<>();
+
+        // ===== Load =====
+        bench.run(name + ".employees.load", () -> new EmployeeDirectory(b.employees()).load(outletNames));
+        bench.run(name + ".stock.load", () -> new StockStore(b.stock(), journal).load());
+        bench.run(name + ".sales.load", () -> new SalesStore(salesDir, b.sales()).load());
+        bench.run(name + ".attendance.load(open)", () -> new AttendanceLog(b.attendance()).load());
+
+        // ===== Point update, on disk before it returns =====
+        StockStore stock = new StockStore(b.stock(), journal);
+        stock.load();
+        bench.run(name + ".stock.setQuantity+snapshot", () -> {
+            stock.setQuantity(data.nextInt(models), data.nextInt(outlets), data.nextInt(50), "bench");
+            stock.compact();
+        });
+        SalesStore store = new SalesStore(salesDir, b.sales());
+        store.load();
+        bench.run(name + ".sales.update+sync", () -> {
+            SaleRecord s = store.get(data.nextInt(store.size()));
+            s.setMethod(data.nextInt(2) == 0 ? "Cash" : "Card");
+            store.update(s);
+            store.sync();
+        });
+
+        // ===== Range scan =====
+        List<YearMonth> months = b.attendance().months();
+        int[] seen = {0};
+        bench.run(name + ".attendance.read(1 month)", () -> {
+            b.attendance().read(months.get(data.nextInt(months.size())), a -> seen[0]++);
+        });
+        store.close();
+    }
+}
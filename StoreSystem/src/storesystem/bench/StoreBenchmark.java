@@ -0,0 +1,314 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem.bench;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.PrintWriter;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import storesystem.Money;
+import storesystem.ReceiptWriter;
+import storesystem.Replenishment;
+import storesystem.SaleRecord;
+import storesystem.SalesAggregates;
+import storesystem.SalesAnalytics;
+import storesystem.SalesIndex;
+import storesystem.SalesLedger;
+import storesystem.SalesRollups;
+import storesystem.SalesStore;
+import storesystem.SalesTextIndex;
+import storesystem.SearchInformation;
+import storesystem.Stock;
+import storesystem.StockCounts;
+import storesystem.StockQuery;
+import storesystem.StockStore;
+import storesystem.Transaction;
+
+// Benchmarks for the store's hot paths on generated data.
+// java -cp <classes> storesystem.bench.StoreBenchmark [--models N] [--outlets M]
+//      [--employees E] [--sales 10000,100000,1000000,10000000] [--money 10000000]
+//      [--warmup ms] [--time ms] [--dir path]
+public class StoreBenchmark {
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opt = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            opt.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        int models = Integer.parseInt(opt.getOrDefault("models", "1000"));
+        int outlets = Integer.parseInt(opt.getOrDefault("outlets", "10"));
+        int employees = Integer.parseInt(opt.getOrDefault("employees", "200"));
+        int customers = Integer.parseInt(opt.getOrDefault("customers", "50000"));
+        File dir = new File(opt.getOrDefault("dir", "bench-data"));
+        Bench bench = new Bench(System.out, Long.parseLong(opt.getOrDefault("warmup", "1000")),
+                Long.parseLong(opt.getOrDefault("time", "3000")), 1_000_000);
+        List<Integer> sizes = new ArrayList<>();
+        for (String s : opt.getOrDefault("sales", "10000,100000,1000000").split(",")) {
+            sizes.add(Integer.parseInt(s.trim()));
+        }
+
+        dir.mkdirs();
+        SyntheticData data = new SyntheticData(42);
+        System.out.println("Data: " + models + " models x " + outlets + " outlets, " + employees + " employees, " + customers + " customers");
+        System.out.println("Generating in " + dir.getAbsolutePath() + " ...");
+        data.writeOutlets(new File(dir, "outlet.csv"), outlets);
+        data.writeEmployees(new File(dir, "employee.csv"), employees, outlets);
+        benchStock(bench, data, dir, models, outlets);
+        benchMoney(bench, data, Integer.parseInt(opt.getOrDefault("money", "10000000")));
+
+        for (int size : sizes) {
+            long t = System.nanoTime();
+            File salesDir = new File(dir, "sales-" + size);
+            SalesStore store = data.writeSales(salesDir, size, models, customers, employees);
+            System.out.printf("%nSales history: %d records (ready in %.1f s)%n", store.size(), (System.nanoTime() - t) / 1e9);
+            benchSales(bench, data, store, salesDir, models, customers);
+            store.close();
+        }
+    }
+
+    // ================= STOCK =================
+    private static void benchStock(Bench bench, SyntheticData data, File dir, int models, int outlets) throws Exception {
+        File file = new File(dir, "model.csv");
+        data.writeModels(file, models, outlets);
+        new File(file.getPath() + ".journal").delete();
+        StockStore store = new StockStore(file);
+        store.load();
+        Map<String, String> outletMap = new HashMap<>();
+        for (int o = 0; o < outlets; o++) outletMap.put(SyntheticData.outlet(o), "Outlet " + o);
+
+        System.out.println("\nStock: " + models + " models x " + outlets + " outlets");
+        bench.header();
+        bench.run("stock.load", () -> new StockStore(file).load());
+        bench.run("stock.loadOutletView", () -> {
+            List<Stock> stocks = new ArrayList<>();
+            int col = store.findOutlet(SyntheticData.outlet(1));
+            for (int row = 0; row < store.getModelCount(); row++) stocks.add(new Stock(store, row, col));
+        });
+        // A till reserving one item and giving it back: in memory only, nothing journalled
+        bench.run("stock.reserveRelease", () -> {
+            int row = data.nextInt(models);
+            if (store.tryReserve(row, 0, 1)) store.release(row, 0, 1);
+        });
+        // Replaces the old saveStock: every Stock In / Stock Out is one journal record
+        bench.run("stock.transfer(there and back)", () -> {
+            int row = data.nextInt(models);
+            if (store.transfer(row, 0, 1, 1, "bench")) store.transfer(row, 1, 0, 1, "bench");
+        });
+        bench.run("stock.setQuantity", () -> store.setQuantity(data.nextInt(models), 0, data.nextInt(50), "bench"));
+        Replenishment alerts = new Replenishment(new File(dir, "reorder.csv"), 2, SyntheticData.outlet(0));
+        alerts.attach(store);
+        bench.run("stock.setQuantity(+replenishment)", () -> store.setQuantity(data.nextInt(models), 1, data.nextInt(50), "bench"));
+        bench.run("replenishment.pending(1 outlet)", () -> alerts.pending(1));
+        bench.run("stock.setQuantity+compact", () -> {
+            store.setQuantity(data.nextInt(models), 0, data.nextInt(50), "bench");
+            store.compact();
+        });
+        bench.run("search.searchStock", () ->
+                SearchInformation.searchStock(SyntheticData.model(data.nextInt(models)), store, outletMap));
+        bench.run("query.model>=N(1 model)", () ->
+                StockQuery.on(store).models(SyntheticData.model(data.nextInt(models))).where(">= 5").run());
+        bench.run("query.totals(all models)", () -> StockQuery.on(store).run());
+        bench.run("query.below(all, 1 outlet)", () -> StockQuery.on(store).outlets(SyntheticData.outlet(1)).where("< 3").run());
+        bench.run("query.below(all outlets)", () -> StockQuery.on(store).where("< 3").run());
+        benchCounts(bench, data, dir, store);
+        benchLedger(bench, data, dir, store);
+    }
+
+    // Checkouts through the sales ledger: one fsync per commit for a single till, shared fsyncs
+    // (group commit) when several tills commit at once
+    private static void benchLedger(Bench bench, SyntheticData data, File dir, StockStore store) throws Exception {
+        int models = store.getModelCount();
+        for (int row = 0; row < models; row++) {
+            for (int c = 0; c < store.getOutletCount(); c++) store.setQuantity(row, c, 1_000_000, "bench");
+        }
+        File salesDir = new File(dir, "ledger-sales");
+        for (File f : salesDir.exists() ? salesDir.listFiles() : new File[0]) f.delete();
+        SalesStore sales = new SalesStore(salesDir);
+        sales.load();
+        File plainDir = new File(dir, "ledger-sales-plain");
+        for (File f : plainDir.exists() ? plainDir.listFiles() : new File[0]) f.delete();
+        SalesStore plain = new SalesStore(plainDir);
+        plain.load();
+        for (ReceiptWriter.Durability d : new ReceiptWriter.Durability[] { ReceiptWriter.Durability.FLUSH, ReceiptWriter.Durability.FSYNC }) {
+            SalesLedger ledger = new SalesLedger(new File(salesDir, "ledger-" + d + ".wal"), sales, store, d);
+            ledger.recover();
+            bench.run("ledger.commit(" + d.name().toLowerCase() + ", 1 till)", () -> checkout(data, store, models).commit(ledger, "Cash"));
+            ledger.close();
+        }
+        store.setSnapshotHook(null);
+        // The checkout before the ledger: stock journal and sales segment written separately, nothing forced
+        bench.run("checkout(no ledger)", () -> {
+            int a = data.nextInt(models), b = data.nextInt(models);
+            store.transfer(a, 0, -1, 1, "bench");
+            store.transfer(b, 0, -1, 1, "bench");
+            plain.addTransaction(List.of(
+                    new SaleRecord("2026-01-01", "10:00", "Customer", store.getModel(a), 1, 100, "Cash", "bench"),
+                    new SaleRecord("2026-01-01", "10:00", "Customer", store.getModel(b), 1, 100, "Cash", "bench")));
+        });
+
+        System.out.printf("%n%-32s %10s %10s %14s%n", "Concurrent checkouts (fsync)", "commits/s", "fsyncs", "commits/fsync");
+        for (int tills : new int[] { 1, 8, 32 }) {
+            SalesLedger ledger = new SalesLedger(new File(salesDir, "ledger-tills.wal"), sales, store, ReceiptWriter.Durability.FSYNC);
+            ledger.recover();
+            long end = System.nanoTime() + 2_000_000_000L;
+            Thread[] threads = new Thread[tills];
+            Exception[] failed = new Exception[1];
+            long start = System.nanoTime();
+            for (int t = 0; t < tills; t++) {
+                SyntheticData own = new SyntheticData(t);
+                threads[t] = new Thread(() -> {
+                    try {
+                        while (System.nanoTime() < end) checkout(own, store, models).commit(ledger, "Cash");
+                    } catch (Exception e) {
+                        failed[0] = e;
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread t : threads) t.join();
+            if (failed[0] != null) throw failed[0];
+            double secs = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%-32s %10.0f %10d %14.1f%n", tills + " till(s)", ledger.getCommitCount() / secs,
+                    ledger.getSyncCount(), ledger.getCommitCount() / (double) Math.max(1, ledger.getSyncCount()));
+            ledger.close();
+        }
+        store.setSnapshotHook(null);
+        sales.close();
+        plain.close();
+    }
+
+    // Two items held at outlet 0, as a till would before taking payment
+    private static Transaction checkout(SyntheticData data, StockStore store, int models) {
+        Transaction t = new Transaction("2026-01-01", "10:00", "Customer", "bench", store.getOutlet(0));
+        t.addItem(new Stock(store, data.nextInt(models), 0), 1);
+        t.addItem(new Stock(store, data.nextInt(models), 0), 1);
+        return t;
+    }
+
+    // A handheld export covering every model at every outlet, 1 cell in 1000 miscounted
+    private static void benchCounts(Bench bench, SyntheticData data, File dir, StockStore store) throws Exception {
+        File countDir = new File(dir, "counts");
+        for (File f : countDir.listFiles() == null ? new File[0] : countDir.listFiles()) f.delete();
+        File file = new File(dir, "count.csv");
+        int[] q = store.quantities();
+        int outlets = store.getOutletCount();
+        try (PrintWriter pw = new PrintWriter(new BufferedWriter(new FileWriter(file)))) {
+            pw.println("Model,Outlet,Counted");
+            for (int i = 0; i < q.length; i++) {
+                int counted = data.nextInt(1000) == 0 ? q[i] + 1 : q[i];
+                pw.println(store.getModel(i / outlets) + "," + store.getOutlet(i % outlets) + "," + counted);
+            }
+        }
+        StockCounts counts = new StockCounts(countDir, store);
+        int[] counted = counts.read(file, 0, new ArrayList<>());
+        System.out.println("\nStock count: " + q.length + " cells");
+        bench.header();
+        bench.run("counts.quantities", () -> store.quantities());
+        bench.run("counts.read(file)", () -> counts.read(file, 0, new ArrayList<>()));
+        for (int i = 0; i < 60; i++) counts.reconcile(counted, i % 2 == 0 ? "Morning" : "Night", "bench"); // a month of counts
+        bench.run("counts.drift(30d, 60 counts)", () -> counts.drift(LocalDate.now().minusDays(29), LocalDate.now()));
+        bench.run("counts.reconcile", () -> counts.reconcile(counted, "Night", "bench"));
+    }
+
+    // ================= MONEY =================
+    // Sale totals added up as double (the old way) and as long cents, plus printing one amount
+    private static void benchMoney(Bench bench, SyntheticData data, int records) throws Exception {
+        long[] cents = new long[records];
+        double[] totals = new double[records];
+        for (int i = 0; i < records; i++) {
+            int qty = 1 + data.nextInt(3);
+            cents[i] = qty * (199 + data.nextInt(800)) * 100L + 90;
+            totals[i] = Double.parseDouble(Money.format(cents[i])); // as the old CSV parsing read it
+        }
+        long exact = 0;
+        for (long c : cents) exact += c;
+        double sum = 0;
+        for (double t : totals) sum += t;
+        System.out.printf("%nMoney: %d sale totals%n", records);
+        System.out.println("Sum as long cents: RM " + Money.format(exact));
+        System.out.println("Sum as double:     RM " + new java.math.BigDecimal(sum).toPlainString()
+                + " (off by " + new java.math.BigDecimal(sum).subtract(java.math.BigDecimal.valueOf(exact, 2)).toPlainString() + ")");
+
+        long[] sink = new long[1];
+        bench.header();
+        bench.run("money.sum(double)", () -> {
+            double s = 0;
+            for (double t : totals) s += t;
+            sink[0] += (long) s;
+        });
+        bench.run("money.sum(cents)", () -> {
+            long s = 0;
+            for (long c : cents) s += c;
+            sink[0] += s;
+        });
+        StringBuilder sb = new StringBuilder(32);
+        bench.run("money.format(String.format)", () -> sink[0] += String.format("%.2f", totals[data.nextInt(records)]).length());
+        bench.run("money.format(Money.append)", () -> {
+            sb.setLength(0);
+            sink[0] += Money.append(sb, cents[data.nextInt(records)]).length();
+        });
+        bench.run("money.parse(Double.parseDouble)", () -> sink[0] += (long) Double.parseDouble("1234.90"));
+        bench.run("money.parse(Money.parse)", () -> sink[0] += Money.parse("1234.90"));
+        if (sink[0] == 42) System.out.println(); // keeps the results in use
+    }
+
+    // ================= SALES =================
+    private static void benchSales(Bench bench, SyntheticData data, SalesStore store, File salesDir,
+                                   int models, int customers) throws Exception {
+        long t = System.nanoTime();
+        SalesIndex byDate = new SalesIndex(store);
+        SalesTextIndex byKeyword = new SalesTextIndex(store);
+        SalesAggregates totals = new SalesAggregates(store);
+        SalesRollups rollups = new SalesRollups(new File(salesDir, "rollups.bin"));
+        rollups.load(store);
+        System.out.printf("Indexes built in %.1f s%n", (System.nanoTime() - t) / 1e9);
+
+        bench.header();
+        bench.run("sales.load", () -> {
+            SalesStore s = new SalesStore(salesDir);
+            s.load();
+        });
+        bench.run("search.searchSales(customer)", () ->
+                SearchInformation.searchSales(SyntheticData.customer(data.nextInt(customers)), store, byKeyword));
+        bench.run("search.searchSales(model)", () ->
+                SearchInformation.searchSales(SyntheticData.model(data.nextInt(models)), store, byKeyword));
+        bench.run("report.showAnalytics", () -> SearchInformation.showAnalytics(store, totals));
+        bench.run("report.filterAndSortSales(7d)", () -> {
+            LocalDate start = SyntheticData.FIRST_DAY.plusDays(data.nextInt(SyntheticData.DAYS - 7));
+            String input = start + "\n" + start.plusDays(6) + "\n2\n";
+            SearchInformation.filterAndSortSales(store, byDate, new Scanner(input));
+        });
+        bench.run("report.employeePerformance", () -> SearchInformation.employeePerformance(store, totals));
+        bench.run("report.salesDashboard", () -> SearchInformation.salesDashboard(store, rollups, new Scanner("\n")));
+        bench.run("rollups.total(30d, outlet, model)", () -> {
+            int end = SalesRollups.dayBucket(SyntheticData.FIRST_DAY) + data.nextInt(SyntheticData.DAYS);
+            rollups.total(SalesRollups.Granularity.DAY, end - 29, end, data.nextInt(store.outlets().size()), data.nextInt(models));
+        });
+
+        // Full pass over the history: the same column scan on this thread alone, then split
+        // into fork/join tasks on a 1-thread pool and on every core
+        int cores = Runtime.getRuntime().availableProcessors();
+        ForkJoinPool single = new ForkJoinPool(1);
+        SalesAnalytics oneThread = new SalesAnalytics(single), allCores = new SalesAnalytics();
+        SalesAnalytics.Summary sequential = allCores.summarizeSequentially(store);
+        System.out.println("Fork/join on " + cores + " core(s) gives the same totals: "
+                + (sequential.equals(oneThread.summarize(store)) && sequential.equals(allCores.summarize(store))));
+        long[] sink = new long[1];
+        bench.run("analytics.sequential(columns)", () -> sink[0] += allCores.summarizeSequentially(store).getRevenueCents());
+        bench.run("analytics.forkJoin(1 thread)", () -> sink[0] += oneThread.summarize(store).getRevenueCents());
+        bench.run("analytics.forkJoin(common pool)", () -> sink[0] += allCores.summarize(store).getRevenueCents());
+        single.shutdown();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package storesystem.bench;
+
+/**
+ *
+ * @author Nur Hasna Nadirah
+ */
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.LocalDate;
+import java.util.Random;
+import storesystem.SaleRecord;
+import storesystem.SalesStore;
+
+// Writes made-up store data in the same formats the system reads, so the
+// benchmarks can run against any size. A fixed seed gives the same data every run.
+public class SyntheticData {
+    public static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+    public static final int DAYS = 730;
+    private static final String[] METHODS = {"Cash", "Card", "E-wallet"};
+
+    private final Random random;
+
+    public SyntheticData(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public static String model(int i) { return "DW" + (2000 + i / 10) + "-" + (i % 10 + 1); }
+    public static String outlet(int i) { return i == 0 ? "HQ" : "C" + (59 + i); }
+    public static String customer(int i) { return "Customer " + i; }
+    public static String employee(int i) { return "Employee " + i; }
+
+    // ================= CSV =================
+    // model.csv: Model,Price,<outlet codes...> with one row per model
+    public void writeModels(File file, int models, int outlets) throws IOException {
+        try (PrintWriter pw = new PrintWriter(new FileWriter(file))) {
+            StringBuilder header = new StringBuilder("Model,Price");
+            for (int o = 1; o <= outlets; o++) header.append(',').append(outlet(o % outlets));
+            pw.println(header);
+            for (int m = 0; m < models; m++) {
+                StringBuilder row = new StringBuilder(model(m)).append(',').append(199 + random.nextInt(800)).append(".90");
+                for (int o = 0; o < outlets; o++) row.append(',').append(random.nextInt(50));
+                pw.println(row);
+            }
+        }
+    }
+
+    // outlet.csv: code,name
+    public void writeOutlets(File file, int outlets) throws IOException {
+        try (PrintWriter pw = new PrintWriter(new FileWriter(file))) {
+            for (int o = 0; o < outlets; o++) pw.println(outlet(o) + ",Outlet " + o);
+        }
+    }
+
+    // employee.csv: id,name,role,password; ids start with their outlet code
+    public void writeEmployees(File file, int employees, int outlets) throws IOException {
+        try (PrintWriter pw = new PrintWriter(new FileWriter(file))) {
+            for (int e = 0; e < employees; e++) {
+                String code = outlet(1 + e % Math.max(1, outlets - 1));
+                String role = e < outlets ? "Manager" : "Full-time";
+                pw.println(code + String.format("%02d", e / outlets % 100) + "," + employee(e) + "," + role + ",p" + e);
+            }
+        }
+    }
+
+    // ================= SALES =================
+    // Fills a sales store up to records rows spread over DAYS days; rows left by an earlier run
+    // are kept, so the data is only generated once per size
+    public SalesStore writeSales(File dir, int records, int models, int customers, int employees) throws IOException {
+        SalesStore store = new SalesStore(dir);
+        store.load();
+        for (int r = store.size(); r < records; r++) {
+            LocalDate day = FIRST_DAY.plusDays((long) r * DAYS / records);
+            int minute = 600 + random.nextInt(660);
+            int qty = 1 + random.nextInt(3);
+            int hour = minute / 60 % 12 == 0 ? 12 : minute / 60 % 12;
+            String time = String.format("%02d:%02d %s", hour, minute % 60, minute < 720 ? "a.m." : "p.m.");
+            store.add(new SaleRecord(day.toString(), time, customer(random.nextInt(customers)),
+                    model(random.nextInt(models)), qty, qty * (199 + random.nextInt(800)) * 100L + 90,
+                    METHODS[random.nextInt(METHODS.length)], employee(random.nextInt(employees))));
+        }
+        return store;
+    }
+
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+}